@@ -0,0 +1,528 @@
+package com.example.mdtoword.benchmark;
+
+import com.example.mdtoword.MdToWordApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 转换接口压力测试
+ *
+ * JMH（MarkdownToWordBenchmark）只测单线程转换成本，这里测 POST /api/converter/markdown-to-word 在并发下的表现：
+ * 1. 默认在本进程内启动应用（随机端口，关闭限流和磁盘缓存），通过HTTP驱动接口；指定 --url 时压测已运行的实例
+ * 2. 按 --levels 逐级提高并发（闭环：每个并发线程收到响应后立即发下一个请求），每级持续 --duration 秒
+ * 3. 请求从混合语料中按权重抽取（--mix，规模:形态:权重，语料见 MarkdownCorpus），
+ *    每个请求末尾附加唯一段落使内容键不同，避免命中结果缓存；--cache=true 时不附加，用于测试缓存命中路径
+ * 4. 每级输出吞吐量、p50/p95/p99/最大延迟（精确分位数）、错误率（按状态码分类）、
+ *    堆内存峰值（每20毫秒采样）、GC次数和耗时；堆内存只在进程内启动时统计
+ * 5. 最后给出拐点：吞吐量不再明显增长（增幅低于10%）或p99成倍上升的前一级，作为容量规划的参考
+ *
+ * 进程内启动需要与开发环境相同的MySQL和Redis（登录接口写入SSO令牌），压测账号不存在时自动注册。
+ * 运行方式（其余 --xxx=yyy 参数传给Spring Boot，例如 --spring.datasource.url=...）：
+ *
+ *   mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.example.mdtoword.benchmark.ConversionLoadTest \
+ *       -Dbenchmark.jvm-args="-Xms2g -Xmx2g" -Djmh.args="--levels=1,2,4,8,16,32 --duration=30"
+ *
+ * 结果同时写入 target/loadtest-result.csv
+ */
+public class ConversionLoadTest {
+
+    private static final String ENDPOINT = "/api/converter/markdown-to-word";
+
+    // 压测自身的参数，其余参数传给Spring Boot
+    private static final Set<String> OPTIONS = Set.of("url", "levels", "duration", "warmup", "mix",
+            "renderer", "cache", "user", "password", "timeout", "output");
+
+    private static final String DEFAULT_MIX =
+            "small:mixed:45,small:table:10,small:list:10,small:code:10,medium:mixed:15,medium:table:5,huge:mixed:5";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> springArgs = new ArrayList<>();
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            if (arg.startsWith("--") && OPTIONS.contains(pair[0])) {
+                options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+            } else {
+                springArgs.add(arg);
+            }
+        }
+        int[] levels = Arrays.stream(options.getOrDefault("levels", "1,2,4,8,16,32").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "15"));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "120")));
+        boolean allowCacheHits = Boolean.parseBoolean(options.getOrDefault("cache", "false"));
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.get("url");
+        if (baseUrl == null) {
+            context = startApplication(springArgs);
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        } else {
+            System.out.println("压测外部实例，不统计堆内存；如未关闭限流，429会计入错误");
+        }
+
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            waitUntilReady(client, baseUrl);
+            String token = login(client, baseUrl,
+                    options.getOrDefault("user", "loadtest"), options.getOrDefault("password", "loadtest123"));
+
+            String query = options.containsKey("renderer") ? "?renderer=" + options.get("renderer") : "";
+            URI uri = URI.create(baseUrl + ENDPOINT + query);
+            Corpus corpus = Corpus.parse(options.getOrDefault("mix", DEFAULT_MIX));
+            System.out.printf("目标: %s，语料: %s%n", uri, corpus);
+
+            LoadRunner runner = new LoadRunner(client, uri, token, corpus, timeout, allowCacheHits, context != null);
+            int warmupConcurrency = Math.min(4, Arrays.stream(levels).max().orElse(1));
+            System.out.printf("预热 %d 秒（并发 %d）...%n", warmupSeconds, warmupConcurrency);
+            runner.run(warmupConcurrency, warmupSeconds);
+
+            List<LevelResult> results = new ArrayList<>();
+            System.out.println(LevelResult.HEADER);
+            for (int concurrency : levels) {
+                LevelResult result = runner.run(concurrency, durationSeconds);
+                results.add(result);
+                System.out.println(result.format());
+            }
+            reportKnee(results);
+            writeCsv(Paths.get(options.getOrDefault("output", "target/loadtest-result.csv")), results);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * 在本进程内启动应用：随机端口，关闭限流（否则压测账号很快被限流）和磁盘缓存（避免写入 ./data），降低日志级别
+     */
+    private static ConfigurableApplicationContext startApplication(List<String> springArgs) {
+        System.out.println("启动应用...");
+        return new SpringApplicationBuilder(MdToWordApplication.class)
+                .properties(
+                        "server.port=0",
+                        "converter.rate-limit.enabled=false",
+                        "converter.disk-cache.enabled=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.example.mdtoword=WARN",
+                        "mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl")
+                .run(springArgs.toArray(new String[0]));
+    }
+
+    /**
+     * 等待预热完成（预热期间健康检查返回503）
+     */
+    private static void waitUntilReady(HttpClient client, String baseUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/converter/health")).GET().build();
+        long deadline = System.currentTimeMillis() + 120_000;
+        while (true) {
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // 外部实例尚未启动完成，继续等待
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("等待转换服务就绪超时: " + baseUrl);
+            }
+            Thread.sleep(500);
+        }
+    }
+
+    /**
+     * 登录获取Token，账号不存在时先注册
+     */
+    private static String login(HttpClient client, String baseUrl, String username, String password) throws Exception {
+        String credentials = JSON.writeValueAsString(Map.of("username", username, "password", password));
+        // 已存在时返回400，忽略
+        client.send(jsonPost(baseUrl + "/api/auth/register", credentials), HttpResponse.BodyHandlers.discarding());
+        HttpResponse<String> response = client.send(jsonPost(baseUrl + "/api/auth/login", credentials),
+                HttpResponse.BodyHandlers.ofString());
+        JsonNode token = JSON.readTree(response.body()).path("data").path("token");
+        if (response.statusCode() != 200 || !token.isTextual()) {
+            throw new IllegalStateException("压测账号登录失败: " + response.statusCode() + " " + response.body());
+        }
+        return token.asText();
+    }
+
+    private static HttpRequest jsonPost(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * 拐点：吞吐量增幅低于10%或p99超过上一级两倍时，上一级即为拐点
+     */
+    private static void reportKnee(List<LevelResult> results) {
+        for (int i = 1; i < results.size(); i++) {
+            LevelResult previous = results.get(i - 1);
+            LevelResult current = results.get(i);
+            if (current.throughput < previous.throughput * 1.1 || current.p99 > previous.p99 * 2) {
+                System.out.printf("拐点: 并发 %d（%.1f req/s，p99 %.0f ms），继续提高到 %d 时吞吐量 %.1f req/s，p99 %.0f ms%n",
+                        previous.concurrency, previous.throughput, previous.p99 / 1e6,
+                        current.concurrency, current.throughput, current.p99 / 1e6);
+                return;
+            }
+        }
+        System.out.println("在测试的并发范围内吞吐量持续增长，未出现拐点，可提高 --levels 继续测试");
+    }
+
+    private static void writeCsv(Path file, List<LevelResult> results) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            writer.println("concurrency,requests,errors,error_rate,throughput_rps,p50_ms,p95_ms,p99_ms,max_ms,"
+                    + "response_mb,heap_peak_mb,gc_count,gc_ms,errors_by_status");
+            for (LevelResult result : results) {
+                writer.println(result.csv());
+            }
+        }
+        System.out.println("结果已写入 " + file.toAbsolutePath());
+    }
+
+    /**
+     * 按权重抽取的混合语料
+     */
+    private static final class Corpus {
+        private final List<String> names = new ArrayList<>();
+        private final List<String> documents = new ArrayList<>();
+        private final int[] cumulativeWeights;
+
+        private Corpus(List<String[]> entries) {
+            cumulativeWeights = new int[entries.size()];
+            int total = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                String[] entry = entries.get(i);
+                names.add(entry[0] + ":" + entry[1] + ":" + entry[2]);
+                // 语料只生成一次，所有请求共享
+                documents.add(MarkdownCorpus.generate(entry[1], entry[0]));
+                total += Integer.parseInt(entry[2]);
+                cumulativeWeights[i] = total;
+            }
+        }
+
+        static Corpus parse(String mix) {
+            List<String[]> entries = new ArrayList<>();
+            for (String item : mix.split(",")) {
+                String[] parts = item.trim().split(":");
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("语料格式应为 规模:形态:权重，实际为: " + item);
+                }
+                entries.add(parts);
+            }
+            return new Corpus(entries);
+        }
+
+        String pick(Random random) {
+            int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (value < cumulativeWeights[i]) {
+                    return documents.get(i);
+                }
+            }
+            return documents.get(documents.size() - 1);
+        }
+
+        @Override
+        public String toString() {
+            return String.join(",", names);
+        }
+    }
+
+    /**
+     * 按指定并发执行一级压测
+     */
+    private static final class LoadRunner {
+        private final HttpClient client;
+        private final URI uri;
+        private final String token;
+        private final Corpus corpus;
+        private final Duration timeout;
+        private final boolean allowCacheHits;
+        private final boolean sampleHeap;
+        private final AtomicLong sequence = new AtomicLong();
+
+        LoadRunner(HttpClient client, URI uri, String token, Corpus corpus, Duration timeout,
+                   boolean allowCacheHits, boolean sampleHeap) {
+            this.client = client;
+            this.uri = uri;
+            this.token = token;
+            this.corpus = corpus;
+            this.timeout = timeout;
+            this.allowCacheHits = allowCacheHits;
+            this.sampleHeap = sampleHeap;
+        }
+
+        LevelResult run(int concurrency, int durationSeconds) throws InterruptedException {
+            if (sampleHeap) {
+                // 各级从相同的堆状态开始
+                System.gc();
+                Thread.sleep(500);
+            }
+            HeapSampler heapSampler = sampleHeap ? new HeapSampler() : null;
+            long gcCountBefore = gcCount();
+            long gcMillisBefore = gcMillis();
+
+            List<long[]> latencies = new ArrayList<>();
+            Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+            LongAdder responseBytes = new LongAdder();
+            long start = System.nanoTime();
+            long deadline = start + durationSeconds * 1_000_000_000L;
+
+            List<Thread> workers = new ArrayList<>();
+            List<LatencyRecorder> recorders = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                LatencyRecorder recorder = new LatencyRecorder();
+                recorders.add(recorder);
+                Random random = new Random(31L * concurrency + i);
+                Thread worker = new Thread(() -> {
+                    while (System.nanoTime() < deadline) {
+                        recorder.record(send(corpus.pick(random), errors, responseBytes));
+                    }
+                }, "loadtest-" + concurrency + "-" + i);
+                worker.start();
+                workers.add(worker);
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            long elapsed = System.nanoTime() - start;
+
+            long heapPeak = -1;
+            if (heapSampler != null) {
+                heapPeak = heapSampler.stop();
+            }
+            for (LatencyRecorder recorder : recorders) {
+                latencies.add(recorder.toArray());
+            }
+            // 压测外部实例时本进程的GC与被测服务无关，不输出
+            return new LevelResult(concurrency, merge(latencies), elapsed, errors, responseBytes.sum(), heapPeak,
+                    sampleHeap ? gcCount() - gcCountBefore : -1, sampleHeap ? gcMillis() - gcMillisBefore : -1);
+        }
+
+        /**
+         * 发送一次转换请求，返回耗时（纳秒），失败时计入错误分类
+         */
+        private long send(String markdown, Map<String, LongAdder> errors, LongAdder responseBytes) {
+            String body = allowCacheHits ? markdown
+                    : markdown + "\n\n压测请求 " + sequence.incrementAndGet() + "\n";
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(timeout)
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "text/plain;charset=UTF-8")
+                    .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                    .build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                // 读完响应体才算完成，只计数不保留，避免压测端占用堆
+                long bytes = 0;
+                byte[] buffer = new byte[8192];
+                try (InputStream in = response.body()) {
+                    int n;
+                    while ((n = in.read(buffer)) != -1) {
+                        bytes += n;
+                    }
+                }
+                long latency = System.nanoTime() - start;
+                responseBytes.add(bytes);
+                if (response.statusCode() != 200) {
+                    errors.computeIfAbsent(String.valueOf(response.statusCode()), k -> new LongAdder()).increment();
+                }
+                return latency;
+            } catch (IOException e) {
+                errors.computeIfAbsent(e.getClass().getSimpleName(), k -> new LongAdder()).increment();
+                return System.nanoTime() - start;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                errors.computeIfAbsent("interrupted", k -> new LongAdder()).increment();
+                return System.nanoTime() - start;
+            }
+        }
+
+        private static long[] merge(List<long[]> parts) {
+            long[] all = new long[parts.stream().mapToInt(part -> part.length).sum()];
+            int offset = 0;
+            for (long[] part : parts) {
+                System.arraycopy(part, 0, all, offset, part.length);
+                offset += part.length;
+            }
+            return all;
+        }
+
+        private static long gcCount() {
+            return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                    .mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(c -> c > 0).sum();
+        }
+
+        private static long gcMillis() {
+            return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                    .mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(t -> t > 0).sum();
+        }
+    }
+
+    /**
+     * 单个并发线程的延迟记录（只由该线程写入，结束后读取）
+     */
+    private static final class LatencyRecorder {
+        private long[] values = new long[1024];
+        private int size;
+
+        void record(long latency) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = latency;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * 堆内存峰值采样：每20毫秒读取一次已使用堆内存
+     * 采样可能错过两次采样之间的瞬时峰值，但反映了持续占用的高水位
+     */
+    private static final class HeapSampler {
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final AtomicLong peak = new AtomicLong();
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        HeapSampler() {
+            thread = new Thread(() -> {
+                while (running) {
+                    peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "loadtest-heap-sampler");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        long stop() throws InterruptedException {
+            running = false;
+            thread.join();
+            return peak.get();
+        }
+    }
+
+    /**
+     * 一级并发的统计结果，延迟单位为纳秒
+     */
+    private static final class LevelResult {
+        static final String HEADER = String.format("%6s %8s %9s %9s %9s %9s %9s %8s %9s %7s %7s  %s",
+                "并发", "请求数", "req/s", "p50(ms)", "p95(ms)", "p99(ms)", "max(ms)", "错误率", "堆峰值MB", "GC次数", "GC ms", "错误分类");
+
+        final int concurrency;
+        final long requests;
+        final long errorCount;
+        final double throughput;
+        final double p50;
+        final double p95;
+        final double p99;
+        final double max;
+        final long responseBytes;
+        final long heapPeak;
+        final long gcCount;
+        final long gcMillis;
+        final Map<String, Long> errors = new TreeMap<>();
+
+        LevelResult(int concurrency, long[] latencies, long elapsedNanos, Map<String, LongAdder> errors,
+                    long responseBytes, long heapPeak, long gcCount, long gcMillis) {
+            this.concurrency = concurrency;
+            this.requests = latencies.length;
+            errors.forEach((key, count) -> this.errors.put(key, count.sum()));
+            this.errorCount = this.errors.values().stream().mapToLong(Long::longValue).sum();
+            // 吞吐量只计成功的请求，分位数包含失败请求的耗时（拒绝通常很快，会拉低分位数，需结合错误率看）
+            this.throughput = (requests - errorCount) / (elapsedNanos / 1e9);
+            long[] sorted = Arrays.stream(latencies).sorted().toArray();
+            this.p50 = percentile(sorted, 0.50);
+            this.p95 = percentile(sorted, 0.95);
+            this.p99 = percentile(sorted, 0.99);
+            this.max = sorted.length > 0 ? sorted[sorted.length - 1] : 0;
+            this.responseBytes = responseBytes;
+            this.heapPeak = heapPeak;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+
+        double errorRate() {
+            return requests > 0 ? (double) errorCount / requests : 0;
+        }
+
+        String format() {
+            return String.format("%6d %8d %9.1f %9.1f %9.1f %9.1f %9.1f %7.2f%% %9s %7s %7s  %s",
+                    concurrency, requests, throughput, p50 / 1e6, p95 / 1e6, p99 / 1e6, max / 1e6,
+                    errorRate() * 100, orDash(heapPeak >= 0 ? heapPeak >> 20 : -1), orDash(gcCount), orDash(gcMillis),
+                    errors.isEmpty() ? "" : errors);
+        }
+
+        String csv() {
+            StringBuilder breakdown = new StringBuilder();
+            errors.forEach((key, count) -> breakdown.append(breakdown.length() > 0 ? ";" : "").append(key).append('=').append(count));
+            return String.format(Locale.ROOT, "%d,%d,%d,%.4f,%.2f,%.1f,%.1f,%.1f,%.1f,%.1f,%s,%s,%s,%s",
+                    concurrency, requests, errorCount, errorRate(), throughput, p50 / 1e6, p95 / 1e6, p99 / 1e6,
+                    max / 1e6, responseBytes / 1048576.0, heapPeak >= 0 ? String.valueOf(heapPeak >> 20) : "",
+                    gcCount >= 0 ? String.valueOf(gcCount) : "", gcMillis >= 0 ? String.valueOf(gcMillis) : "", breakdown);
+        }
+
+        private static String orDash(long value) {
+            return value >= 0 ? String.valueOf(value) : "-";
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.mdtoword.benchmark;
+
+/**
+ * 基准测试语料生成器
+ *
+ * 按形态（shape）和规模（size）生成确定性的Markdown文档，保证每次运行输入完全一致：
+ * - mixed：段落、列表、表格、代码块按真实文档比例混合
+ * - table：以大表格为主
+ * - list：以多级有序/无序列表为主
+ * - code：以代码块为主
+ *
+ * 规模：small 约4KB，medium 约128KB，huge 约2MB
+ */
+public final class MarkdownCorpus {
+
+    private MarkdownCorpus() {
+    }
+
+    /**
+     * 生成语料
+     *
+     * @param shape 文档形态：mixed / table / list / code
+     * @param size 文档规模：small / medium / huge
+     * @return Markdown内容
+     */
+    public static String generate(String shape, String size) {
+        int targetChars = switch (size) {
+            case "small" -> 4 * 1024;
+            case "medium" -> 128 * 1024;
+            case "huge" -> 2 * 1024 * 1024;
+            default -> throw new IllegalArgumentException("未知的文档规模: " + size);
+        };
+
+        StringBuilder markdown = new StringBuilder(targetChars + 4096);
+        for (int chapter = 1; markdown.length() < targetChars; chapter++) {
+            markdown.append("# 第").append(chapter).append("章 性能测试\n\n");
+            switch (shape) {
+                case "mixed" -> appendMixed(markdown, chapter);
+                case "table" -> appendTable(markdown, 40);
+                case "list" -> appendList(markdown, 40);
+                case "code" -> appendCode(markdown, 60);
+                default -> throw new IllegalArgumentException("未知的文档形态: " + shape);
+            }
+        }
+        return markdown.toString();
+    }
+
+    private static void appendMixed(StringBuilder markdown, int chapter) {
+        for (int section = 1; section <= 3; section++) {
+            markdown.append("## ").append(chapter).append('.').append(section).append(" 小节\n\n");
+            for (int p = 0; p < 4; p++) {
+                markdown.append("这是一段用于性能测试的正文，包含**加粗**、*斜体*和`行内代码`，")
+                        .append("长度接近真实博客文章中的普通段落。\n\n");
+            }
+            markdown.append("> 引用内容，用于覆盖引用样式的渲染路径。\n\n");
+            appendList(markdown, 4);
+            appendTable(markdown, 5);
+            appendCode(markdown, 8);
+        }
+    }
+
+    private static void appendTable(StringBuilder markdown, int rows) {
+        markdown.append("| 编号 | 名称 | 数量 | 单价 | 备注 |\n");
+        markdown.append("|------|------|------|------|------|\n");
+        for (int row = 1; row <= rows; row++) {
+            markdown.append("| ").append(row)
+                    .append(" | 商品").append(row)
+                    .append(" | ").append(row * 3)
+                    .append(" | ").append(row * 7 % 100).append(".50")
+                    .append(" | 说明文字 |\n");
+        }
+        markdown.append('\n');
+    }
+
+    private static void appendList(StringBuilder markdown, int items) {
+        for (int item = 1; item <= items; item++) {
+            markdown.append(item).append(". 有序列表项 ").append(item).append('\n');
+            markdown.append("   - 嵌套的无序列表项\n");
+            markdown.append("   - 另一个嵌套项，包含`代码`\n");
+        }
+        markdown.append('\n');
+    }
+
+    private static void appendCode(StringBuilder markdown, int lines) {
+        markdown.append("```java\n");
+        for (int line = 1; line <= lines; line++) {
+            markdown.append("int value").append(line).append(" = compute(").append(line).append(", \"参数\");\n");
+        }
+        markdown.append("```\n\n");
+    }
+}
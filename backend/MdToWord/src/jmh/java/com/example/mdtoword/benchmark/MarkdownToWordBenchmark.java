@@ -0,0 +1,86 @@
+package com.example.mdtoword.benchmark;
+
+import com.example.mdtoword.util.MarkdownToWordUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Markdown转Word基准测试
+ *
+ * 对比四种转换路径：
+ * - convert：完整生成字节数组（普通接口、缓存使用的路径）
+ * - convertStreaming：直接写入输出流（流式下载接口使用的路径）
+ * - convertParallel：按顶级标题分段并行渲染（大文档使用的路径）
+ * - convertNative：原生渲染器，CommonMark语法树直接写入Word（renderer=native）
+ *
+ * 通过 BenchmarkRunner 运行时默认启用GC分析器，输出 gc.alloc.rate.norm（每次转换分配的字节数）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class MarkdownToWordBenchmark {
+
+    @Param({"small", "medium", "huge"})
+    private String size;
+
+    @Param({"mixed", "table", "list", "code"})
+    private String shape;
+
+    private MarkdownToWordUtil markdownToWordUtil;
+
+    private ForkJoinPool sectionPool;
+
+    private String markdown;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        markdownToWordUtil = new MarkdownToWordUtil();
+        markdownToWordUtil.init();
+        sectionPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        markdown = MarkdownCorpus.generate(shape, size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sectionPool.shutdown();
+    }
+
+    @Benchmark
+    public byte[] convert() throws IOException {
+        return markdownToWordUtil.convertMarkdownToWordBytes(markdown);
+    }
+
+    @Benchmark
+    public void convertStreaming() throws IOException {
+        markdownToWordUtil.writeMarkdownToWord(markdown, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public byte[] convertParallel() throws IOException {
+        return markdownToWordUtil.convertMarkdownToWordBytesParallel(markdown, sectionPool);
+    }
+
+    @Benchmark
+    public byte[] convertNative() throws IOException {
+        return markdownToWordUtil.convertMarkdownToWordBytesNative(markdown);
+    }
+}
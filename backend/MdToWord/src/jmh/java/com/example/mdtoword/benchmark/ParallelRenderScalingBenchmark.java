@@ -0,0 +1,88 @@
+package com.example.mdtoword.benchmark;
+
+import com.example.mdtoword.util.MarkdownToWordUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分段并行渲染扩展性基准测试
+ *
+ * 对同一篇大文档分别使用不同并行度渲染，与串行渲染（serial）对比得到加速比：
+ *   mvn -Pbenchmark test-compile exec:exec -Djmh.args="ParallelRenderScalingBenchmark -p parallelism=1,2,4,8"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ParallelRenderScalingBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    @Param({"64"})
+    private int chapters;
+
+    @Param({"200"})
+    private int paragraphsPerChapter;
+
+    private MarkdownToWordUtil markdownToWordUtil;
+
+    private ForkJoinPool sectionPool;
+
+    private String markdown;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        markdownToWordUtil = new MarkdownToWordUtil();
+        markdownToWordUtil.init();
+        sectionPool = new ForkJoinPool(parallelism);
+        markdown = buildDocument(chapters, paragraphsPerChapter);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sectionPool.shutdown();
+    }
+
+    @Benchmark
+    public byte[] serial() throws IOException {
+        return markdownToWordUtil.convertMarkdownToWordBytes(markdown);
+    }
+
+    @Benchmark
+    public byte[] parallel() throws IOException {
+        return markdownToWordUtil.convertMarkdownToWordBytesParallel(markdown, sectionPool);
+    }
+
+    private static String buildDocument(int chapters, int paragraphsPerChapter) {
+        StringBuilder markdown = new StringBuilder();
+        for (int c = 1; c <= chapters; c++) {
+            markdown.append("# 第").append(c).append("章\n\n");
+            for (int p = 1; p <= paragraphsPerChapter; p++) {
+                markdown.append("这是第").append(p).append("段，包含**加粗**和`代码`文本。\n\n");
+                if (p % 50 == 0) {
+                    markdown.append("1. 列表项一\n2. 列表项二\n\n");
+                    markdown.append("| 列A | 列B |\n|-----|-----|\n| 1 | 2 |\n\n");
+                }
+            }
+        }
+        return markdown.toString();
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.mdtoword.config;
+
+import com.example.mdtoword.converter.ConversionRateLimitInterceptor;
+import com.example.mdtoword.converter.ConversionResultCache;
+import com.example.mdtoword.converter.ConverterMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 文档转换配置类
+ *
+ * 功能：
+ * 1. 提供流式下载使用的专用线程池
+ * 2. 将Spring MVC异步请求（StreamingResponseBody）交给该线程池执行
+ * 3. 创建转换结果缓存（按内容、模板版本和渲染引擎版本寻址），博客导出也复用该缓存
+ * 4. 提供异步转换任务使用的固定大小线程池（有界队列，满时拒绝）
+ * 5. 提供批量转换使用的线程池（队列满时由提交线程自行执行，形成背压）
+ * 6. 提供大文档分段并行渲染使用的ForkJoinPool
+ * 7. 创建HTML预览缓存（按内容哈希寻址）
+ * 8. 提供执行单次转换的渲染线程池（可中断，超时后取消）
+ * 9. 提供复杂文档使用的低优先级渲染线程池
+ * 10. 创建嵌入图片缓存（缩放后的图片字节）
+ * 11. 为提交转换的接口注册按调用方的限流拦截器
+ *
+ * 说明：
+ * 流式响应不设置Content-Length，Tomcat会自动使用分块传输（chunked）
+ */
+@Configuration
+public class ConverterConfig implements WebMvcConfigurer {
+
+    private final ConversionRateLimitInterceptor rateLimitInterceptor;
+
+    public ConverterConfig(ConversionRateLimitInterceptor rateLimitInterceptor) {
+        this.rateLimitInterceptor = rateLimitInterceptor;
+    }
+
+    @Value("${converter.stream.core-pool-size:4}")
+    private int streamCorePoolSize;
+
+    @Value("${converter.stream.max-pool-size:8}")
+    private int streamMaxPoolSize;
+
+    @Value("${converter.stream.queue-capacity:100}")
+    private int streamQueueCapacity;
+
+    @Value("${converter.stream.timeout:120000}")
+    private long streamTimeout;
+
+    @Value("${converter.cache.max-size-mb:64}")
+    private long cacheMaxSizeMb;
+
+    @Value("${converter.cache.html-preview-max-size-mb:16}")
+    private long htmlPreviewCacheMaxSizeMb;
+
+    @Value("${converter.cache.image-max-size-mb:64}")
+    private long imageCacheMaxSizeMb;
+
+    @Value("${converter.job.pool-size:2}")
+    private int jobPoolSize;
+
+    @Value("${converter.job.queue-capacity:20}")
+    private int jobQueueCapacity;
+
+    @Value("${converter.batch.pool-size:4}")
+    private int batchPoolSize;
+
+    @Value("${converter.batch.queue-capacity:50}")
+    private int batchQueueCapacity;
+
+    @Value("${converter.render.pool-size:8}")
+    private int renderPoolSize;
+
+    @Value("${converter.render.queue-capacity:100}")
+    private int renderQueueCapacity;
+
+    @Value("${converter.render.expensive-pool-size:2}")
+    private int expensiveRenderPoolSize;
+
+    @Value("${converter.render.expensive-queue-capacity:20}")
+    private int expensiveRenderQueueCapacity;
+
+    // 分段渲染并行度，0表示使用CPU核数
+    @Value("${converter.parallel.parallelism:0}")
+    private int sectionParallelism;
+
+    /**
+     * 流式转换线程池
+     * 转换在该线程池中执行并直接写入响应流，不占用Tomcat请求线程
+     */
+    @Bean
+    public ThreadPoolTaskExecutor converterStreamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamCorePoolSize);
+        executor.setMaxPoolSize(streamMaxPoolSize);
+        executor.setQueueCapacity(streamQueueCapacity);
+        executor.setThreadNamePrefix("converter-stream-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 异步转换任务线程池
+     * 核心线程数与最大线程数相同，队列满时抛出TaskRejectedException，由调用方返回429
+     */
+    @Bean
+    public ThreadPoolTaskExecutor converterJobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(jobPoolSize);
+        executor.setMaxPoolSize(jobPoolSize);
+        executor.setQueueCapacity(jobQueueCapacity);
+        executor.setThreadNamePrefix("converter-job-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 批量转换线程池
+     * 队列满时由提交任务的流式线程自己执行转换，不会丢弃任务
+     */
+    @Bean
+    public ThreadPoolTaskExecutor converterBatchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(batchPoolSize);
+        executor.setMaxPoolSize(batchPoolSize);
+        executor.setQueueCapacity(batchQueueCapacity);
+        executor.setThreadNamePrefix("converter-batch-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 渲染线程池
+     * 转换在该线程池中执行，请求线程按截止时间等待；超时后中断渲染线程，
+     * 渲染代码在块级元素之间检查中断并停止。队列满时拒绝，由调用方返回429
+     */
+    @Bean
+    public ThreadPoolTaskExecutor converterRenderExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(renderPoolSize);
+        executor.setMaxPoolSize(renderPoolSize);
+        executor.setQueueCapacity(renderQueueCapacity);
+        executor.setThreadNamePrefix("converter-render-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 复杂文档渲染线程池
+     * 由复杂度分析判定为昂贵的文档在此执行：线程数少、线程优先级低，
+     * 不挤占普通文档的渲染线程；队列满时拒绝，由调用方返回429
+     */
+    @Bean
+    public ThreadPoolTaskExecutor converterExpensiveRenderExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(expensiveRenderPoolSize);
+        executor.setMaxPoolSize(expensiveRenderPoolSize);
+        executor.setQueueCapacity(expensiveRenderQueueCapacity);
+        executor.setThreadPriority(Thread.MIN_PRIORITY);
+        executor.setThreadNamePrefix("converter-expensive-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 分段并行渲染线程池
+     * 与 commonPool 隔离，避免并行渲染占满其他组件共用的线程
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool converterSectionPool() {
+        int parallelism = sectionParallelism > 0 ? sectionParallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * 转换结果缓存（按内容哈希寻址，按字节数淘汰）
+     */
+    @Bean
+    public ConversionResultCache conversionResultCache(ConverterMetrics converterMetrics) {
+        return new ConversionResultCache("cache.result", cacheMaxSizeMb * 1024 * 1024, converterMetrics);
+    }
+
+    /**
+     * HTML预览缓存，编辑时相同内容（如撤销、来回切换）重复预览直接命中
+     */
+    @Bean
+    public ConversionResultCache htmlPreviewCache(ConverterMetrics converterMetrics) {
+        return new ConversionResultCache("cache.html-preview", htmlPreviewCacheMaxSizeMb * 1024 * 1024, converterMetrics);
+    }
+
+    /**
+     * 嵌入图片缓存（缩放后的图片字节），重复导出引用同一图片的文档时不再解码
+     */
+    @Bean
+    public ConversionResultCache imageCache(ConverterMetrics converterMetrics) {
+        return new ConversionResultCache("cache.image", imageCacheMaxSizeMb * 1024 * 1024, converterMetrics);
+    }
+
+    /**
+     * 提交转换的接口按调用方限流（HTML预览、任务查询、指标等不限流）
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimitInterceptor)
+                .addPathPatterns("/api/converter/markdown-to-word", "/api/converter/markdown-to-word/**",
+                        "/api/converter/word-to-markdown", "/api/converter/batch", "/api/converter/jobs");
+    }
+
+    /**
+     * 配置异步请求使用的线程池和超时时间
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(converterStreamExecutor());
+        configurer.setDefaultTimeout(streamTimeout);
+    }
+}
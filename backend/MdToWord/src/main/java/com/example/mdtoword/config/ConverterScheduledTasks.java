@@ -0,0 +1,54 @@
+package com.example.mdtoword.config;
+
+import com.example.mdtoword.converter.ConverterMetrics;
+import com.example.mdtoword.service.ConversionJobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 文档转换相关定时任务
+ *
+ * 功能：
+ * 1. 定期清理超过保留时间的异步转换任务结果，释放内存
+ * 2. 定期轮换转换指标直方图，使分位数只反映最近的转换
+ */
+@Component
+@EnableScheduling
+public class ConverterScheduledTasks {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConverterScheduledTasks.class);
+
+    @Autowired
+    private ConversionJobService conversionJobService;
+
+    @Autowired
+    private ConverterMetrics converterMetrics;
+
+    /**
+     * 定时清理过期的转换任务
+     *
+     * 执行频率：每分钟执行一次
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void cleanExpiredJobs() {
+        try {
+            conversionJobService.cleanExpiredJobs();
+        } catch (Exception e) {
+            logger.error("定时清理过期转换任务失败", e);
+        }
+    }
+
+    /**
+     * 轮换直方图统计周期
+     *
+     * 执行频率：每分钟执行一次，分位数覆盖最近1~2分钟
+     */
+    @Scheduled(fixedRate = 60000)
+    public void rotateHistograms() {
+        converterMetrics.rotateHistograms();
+    }
+}
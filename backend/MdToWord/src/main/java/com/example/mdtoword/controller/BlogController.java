@@ -11,6 +11,8 @@ import com.example.mdtoword.util.SecurityUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -207,6 +209,41 @@ public class BlogController {
         }
     }
     
+    /**
+     * 导出博客为Word文档
+     * 
+     * 业务逻辑：
+     * 1. 权限验证与获取博客详情一致
+     * 2. 使用文章的Markdown内容以原生引擎转换为Word
+     * 3. 复用按内容寻址的转换结果缓存（键包含内容、模板版本和原生引擎版本），文章未修改时重复导出不再转换
+     * 
+     * @param id 博客ID
+     * @return Word文档
+     */
+    @GetMapping("/{id}/export.docx")
+    public ResponseEntity<byte[]> exportDocx(@PathVariable @NotNull @Min(1) Integer id) {
+        logger.info("导出博客为Word，ID: {}", id);
+        
+        // 获取当前登录用户ID（可能为null表示未登录）
+        Integer currentUserId = null;
+        try {
+            currentUserId = securityUtil.getCurrentUserId();
+        } catch (BusinessException e) {
+            // 用户未登录，currentUserId保持为null
+            logger.debug("用户未登录，只能导出已发布的文章");
+        }
+        
+        byte[] wordFile = blogService.exportDocx(id, currentUserId);
+        if (wordFile == null) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=blog-" + id + ".docx")
+                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.wordprocessingml.document"))
+                .body(wordFile);
+    }
+    
     /**
      * 创建新博客
      * 
@@ -1,51 +1,394 @@
 package com.example.mdtoword.controller;
 
+import com.example.mdtoword.converter.ConversionRateLimitInterceptor;
+import com.example.mdtoword.converter.ConversionRateLimiter;
+import com.example.mdtoword.converter.ConversionSource;
+import com.example.mdtoword.converter.ConverterMetrics;
+import com.example.mdtoword.converter.ConverterWarmup;
+import com.example.mdtoword.converter.RenderEngine;
+import com.example.mdtoword.converter.WordTemplate;
+import com.example.mdtoword.converter.SpillFileStore;
 import com.example.mdtoword.exception.BusinessException;
+import com.example.mdtoword.pojo.ConversionJob;
+import com.example.mdtoword.pojo.MarkdownDocument;
 import com.example.mdtoword.pojo.Result;
+import com.example.mdtoword.service.ConversionJobService;
 import com.example.mdtoword.service.ConverterService;
+import com.example.mdtoword.util.FileTransferUtil;
+import com.example.mdtoword.util.LimitedInputStream;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/api/converter")
 public class ConverterController {
+    private static final String DOCX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+
     @Autowired
     private final ConverterService converterService;
+    private final ConversionJobService conversionJobService;
+    private final ConverterMetrics converterMetrics;
+    private final ConverterWarmup converterWarmup;
+    private final SpillFileStore spillFileStore;
+    private final ConversionRateLimiter rateLimiter;
     private static final Logger logger = LoggerFactory.getLogger(ConverterController.class);
 
-    public ConverterController(ConverterService converterService) {
+    // 单次批量转换的文档数量上限
+    @Value("${converter.batch.max-documents:500}")
+    private int batchMaxDocuments;
+
+    public ConverterController(ConverterService converterService,
+                               ConversionJobService conversionJobService,
+                               ConverterMetrics converterMetrics,
+                               ConverterWarmup converterWarmup,
+                               SpillFileStore spillFileStore,
+                               ConversionRateLimiter rateLimiter) {
         this.converterService = converterService;
+        this.conversionJobService = conversionJobService;
+        this.converterMetrics = converterMetrics;
+        this.converterWarmup = converterWarmup;
+        this.spillFileStore = spillFileStore;
+        this.rateLimiter = rateLimiter;
     }
 
     @PostMapping("/markdown-to-word")
-    public ResponseEntity<byte[]> convertMarkdownToWord(@RequestBody String markdownContent) {
+    public ResponseEntity<?> convertMarkdownToWord(@RequestBody String markdownContent,
+                                                   @RequestParam(value = "renderer", required = false) String renderer,
+                                                   @RequestParam(value = "template", required = false) String templateId,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                   HttpServletRequest request) {
+        settleRateLimit(request, markdownContent);
         // 校验输入
         if (markdownContent == null || markdownContent.trim().isEmpty()) {
             logger.warn("收到空的 Markdown 输入");
             throw new BusinessException("Markdown content cannot be null or empty");
         }
 
+        // 可通过 renderer 参数选择渲染引擎（poi-tl、native），用于对比两种引擎
+        RenderEngine engine = converterService.resolveRenderEngine(renderer);
+        // 可通过 template 参数选择上传的模板，未指定时使用内置模板
+        WordTemplate template = converterService.resolveTemplate(templateId);
+
+        // 相同内容（同一模板版本、同一引擎）得到相同的ETag，客户端重复下载时直接返回304
+        String contentKey = converterService.computeContentKey(markdownContent, engine, template);
+        String eTag = "\"" + contentKey + "\"";
+        if (eTagMatches(ifNoneMatch, eTag)) {
+            converterMetrics.increment("etag.not-modified");
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        // 磁盘缓存命中时直接从文件发送，不读入堆
+        Path cachedFile = converterService.findCachedFile(contentKey);
+        if (cachedFile != null) {
+            ResponseEntity<?> cached = cachedFileResponse(cachedFile, eTag, request);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // 超大文档写入临时文件，响应时从文件通道发送，发送完成或客户端中断后删除
+        if (converterService.shouldSpillToDisk(markdownContent)) {
+            return spilledResponse(converterService.convertMarkdownToWordFile(markdownContent, engine, template), eTag);
+        }
+
         // 调用服务层转换
-        byte[] wordFile = converterService.convertMarkdownToWord(markdownContent);
+        byte[] wordFile = converterService.convertMarkdownToWord(markdownContent, contentKey, engine, template);
 
         // 设置响应头
         HttpHeaders headers = new HttpHeaders();
         headers.add("Content-Disposition", "attachment; filename=converted.docx");
-        headers.add("Content-Type", "application/vnd.openxmlformats-officedocument.wordprocessingml.document");
+        headers.add("Content-Type", DOCX_CONTENT_TYPE);
+        headers.setETag(eTag);
 
         return new ResponseEntity<>(wordFile, headers, HttpStatus.OK);
     }
 
+    /**
+     * Markdown转Word（流式下载）
+     * 文档在专用线程池中渲染并直接写入响应流，不在堆上保留完整的字节数组；
+     * 响应不带Content-Length，使用分块传输
+     */
+    @PostMapping("/markdown-to-word/stream")
+    public ResponseEntity<StreamingResponseBody> convertMarkdownToWordStream(@RequestBody String markdownContent,
+                                                                             @RequestParam(value = "renderer", required = false) String renderer,
+                                                                             @RequestParam(value = "template", required = false) String templateId,
+                                                                             HttpServletRequest request) {
+        settleRateLimit(request, markdownContent);
+        if (markdownContent == null || markdownContent.trim().isEmpty()) {
+            logger.warn("收到空的 Markdown 输入");
+            throw new BusinessException("Markdown content cannot be null or empty");
+        }
+
+        RenderEngine engine = converterService.resolveRenderEngine(renderer);
+        WordTemplate template = converterService.resolveTemplate(templateId);
+        StreamingResponseBody body = outputStream -> converterService.convertMarkdownToWord(markdownContent, engine, template, outputStream);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=converted.docx")
+                .contentType(MediaType.parseMediaType(DOCX_CONTENT_TYPE))
+                .body(body);
+    }
+
+    /**
+     * Markdown转Word（上传.md文件，流式读取）
+     * 文件内容按行增量解析，不解码成完整字符串；.gz 文件或 gzip 类型自动解压。
+     * 未指定 renderer 时使用 native 引擎（poi-tl 需要先读成完整字符串）
+     */
+    @PostMapping(value = "/markdown-to-word/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<StreamingResponseBody> uploadMarkdownFile(@RequestParam("file") MultipartFile file,
+                                                                    @RequestParam(value = "renderer", required = false) String renderer,
+                                                                    @RequestParam(value = "template", required = false) String templateId) {
+        if (file.isEmpty()) {
+            throw new BusinessException("上传的Markdown文件不能为空");
+        }
+        String filename = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase() : "";
+        boolean gzip = filename.endsWith(".gz") || isGzipType(file.getContentType());
+        RenderEngine engine = resolveUploadEngine(renderer);
+        WordTemplate template = converterService.resolveTemplate(templateId);
+
+        StreamingResponseBody body = outputStream -> {
+            try (InputStream markdownStream = openMarkdownStream(file.getInputStream(), gzip)) {
+                converterService.convertMarkdownToWord(markdownStream, gzip ? -1 : file.getSize(), engine, template, outputStream);
+            }
+        };
+        return docxStreamResponse(body);
+    }
+
+    /**
+     * Markdown转Word（请求体为原始Markdown，流式读取）
+     * 支持 Content-Encoding: gzip；请求体不经过字符串转换，直接按行增量解析
+     */
+    @PostMapping(value = "/markdown-to-word/upload", consumes = {"text/markdown", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<StreamingResponseBody> uploadMarkdownBody(InputStream requestBody,
+                                                                    @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+                                                                    @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+                                                                    @RequestParam(value = "renderer", required = false) String renderer,
+                                                                    @RequestParam(value = "template", required = false) String templateId,
+                                                                    HttpServletRequest request) {
+        boolean gzip = false;
+        if (contentEncoding != null && !contentEncoding.isBlank() && !"identity".equalsIgnoreCase(contentEncoding.trim())) {
+            if (!"gzip".equalsIgnoreCase(contentEncoding.trim())) {
+                throw new BusinessException(415, "不支持的Content-Encoding: " + contentEncoding + "，仅支持gzip");
+            }
+            gzip = true;
+        }
+        boolean gzipBody = gzip;
+        // gzip压缩后的长度不能反映解压后的大小
+        long expectedBytes = gzip || contentLength == null ? -1 : contentLength;
+        RenderEngine engine = resolveUploadEngine(renderer);
+        WordTemplate template = converterService.resolveTemplate(templateId);
+
+        // 没有Content-Length时限流只预扣了默认大小，读完后按实际收到的字节数补扣
+        ConversionRateLimiter.Decision rateLimit =
+                (ConversionRateLimiter.Decision) request.getAttribute(ConversionRateLimitInterceptor.DECISION_ATTRIBUTE);
+        LimitedInputStream countedBody = new LimitedInputStream(requestBody, Long.MAX_VALUE);
+
+        // 请求体在异步线程中读取，响应完成前请求流保持可用
+        StreamingResponseBody body = outputStream -> {
+            try (InputStream markdownStream = openMarkdownStream(countedBody, gzipBody)) {
+                converterService.convertMarkdownToWord(markdownStream, expectedBytes, engine, template, outputStream);
+            } finally {
+                rateLimiter.settle(rateLimit, countedBody.getCount());
+            }
+        };
+        return docxStreamResponse(body);
+    }
+
+    /**
+     * Word转Markdown（上传.docx文件，流式解析）
+     * 先读样式、编号和超链接部件，再SAX解析正文并逐段写出Markdown，内存占用与文档大小无关；图片不导出
+     */
+    @PostMapping(value = "/word-to-markdown", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<StreamingResponseBody> convertWordToMarkdown(@RequestParam("file") MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new BusinessException("上传的Word文件不能为空");
+        }
+        String filename = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase() : "";
+        if (!filename.endsWith(".docx")) {
+            throw new BusinessException("仅支持.docx格式的Word文件");
+        }
+
+        // 上传内容已由容器落盘，转存到临时文件后按ZIP目录随机访问各部件
+        StreamingResponseBody body = outputStream -> {
+            Path docxFile = spillFileStore.createTempFile();
+            try {
+                file.transferTo(docxFile);
+                converterService.convertWordToMarkdown(docxFile, outputStream);
+            } finally {
+                spillFileStore.delete(docxFile);
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=converted.md")
+                .contentType(new MediaType("text", "markdown", StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+    /**
+     * Markdown转HTML（编辑时实时预览）
+     * 不经过Word转换链路，结果按内容哈希缓存；原始HTML标签会被转义
+     */
+    @PostMapping("/markdown-to-html")
+    public ResponseEntity<byte[]> convertMarkdownToHtml(@RequestBody(required = false) String markdownContent) {
+        // 编辑器清空内容时返回空白预览，而不是报错
+        byte[] html = converterService.convertMarkdownToHtml(markdownContent == null ? "" : markdownContent);
+
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+                .body(html);
+    }
+
+    /**
+     * 批量转换（上传多个Markdown文件）
+     * 文档并行转换，按完成顺序写入ZIP并流式返回
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<StreamingResponseBody> convertBatchFiles(@RequestParam("files") MultipartFile[] files) {
+        List<ConversionSource> sources = Arrays.stream(files)
+                .map(ConversionSource::of)
+                .toList();
+        return batchResponse(sources);
+    }
+
+    /**
+     * 批量转换（JSON数组，元素为 {name, content}）
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> convertBatchJson(@RequestBody List<MarkdownDocument> documents) {
+        List<ConversionSource> sources = documents.stream()
+                .map(document -> ConversionSource.of(document.getName(), document.getContent()))
+                .toList();
+        return batchResponse(sources);
+    }
+
+    /**
+     * 提交异步转换任务
+     * 立即返回任务ID，转换在后台线程池中执行；队列已满时返回429并携带Retry-After
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<Result<ConversionJob>> submitJob(@RequestBody String markdownContent, Principal principal,
+                                                           HttpServletRequest request) {
+        settleRateLimit(request, markdownContent);
+        if (markdownContent == null || markdownContent.trim().isEmpty()) {
+            logger.warn("收到空的 Markdown 输入");
+            throw new BusinessException("Markdown content cannot be null or empty");
+        }
+
+        ConversionJob job = conversionJobService.submit(markdownContent, principal != null ? principal.getName() : null);
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/converter/jobs/" + job.getId()))
+                .body(Result.success(job, "转换任务已提交"));
+    }
+
+    /**
+     * 查询异步转换任务
+     * 排队或转换中返回202和任务状态；完成后直接返回Word文件；失败返回500和失败原因
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getJob(@PathVariable String jobId, Principal principal) {
+        ConversionJob job = conversionJobService.getJob(jobId, principal != null ? principal.getName() : null);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Result.notFound("任务不存在或已过期"));
+        }
+
+        switch (job.getStatus()) {
+            case DONE:
+                return ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=converted.docx")
+                        .contentType(MediaType.parseMediaType(DOCX_CONTENT_TYPE))
+                        .body(job.getResult());
+            case FAILED:
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Result.error(500, "转换失败: " + job.getErrorMessage()));
+            default:
+                return ResponseEntity.accepted().body(Result.success(job, "转换任务处理中"));
+        }
+    }
+
+    /**
+     * 上传Word模板（需包含 {{md}} 标签），同一ID再次上传时版本号加一
+     * 首次上传者成为该ID的所有者，其他用户上传同一ID返回403；转换接口通过 template 参数使用该模板
+     */
+    @PostMapping(value = "/templates", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Result<Map<String, Object>>> uploadTemplate(@RequestParam("id") String id,
+                                                                      @RequestParam("file") MultipartFile file,
+                                                                      Principal principal) throws IOException {
+        String filename = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase() : "";
+        if (!filename.endsWith(".docx")) {
+            throw new BusinessException("模板必须是.docx文件");
+        }
+        WordTemplate template = converterService.uploadTemplate(id, file.getBytes(), principal != null ? principal.getName() : null);
+
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("id", template.getId());
+        info.put("version", template.getVersion());
+        info.put("size", template.getBytes().length);
+        info.put("updateTime", template.getUpdateTime());
+        return ResponseEntity.ok(Result.success(info, "模板上传成功"));
+    }
+
+    /**
+     * 可用的Word模板列表
+     */
+    @GetMapping("/templates")
+    public ResponseEntity<Result<List<Map<String, Object>>>> listTemplates() {
+        return ResponseEntity.ok(Result.success(converterService.listTemplates()));
+    }
+
+    /**
+     * 转换指标（缓存命中/未命中/淘汰等）
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Result<Map<String, Object>>> stats() {
+        return ResponseEntity.ok(Result.success(converterMetrics.snapshot()));
+    }
+
+    /**
+     * 转换耗时与字节数分布（各阶段耗时、内存分配量的分位数）
+     */
+    @GetMapping("/stats/histograms")
+    public ResponseEntity<Result<Map<String, Map<String, Number>>>> histograms() {
+        return ResponseEntity.ok(Result.success(converterMetrics.histogramSnapshot()));
+    }
+
     /**
      * 健康检查接口
      */
     @GetMapping("/health")
     public ResponseEntity<Result<String>> health() {
+        // 预热完成前返回503，负载均衡暂不引流
+        if (!converterWarmup.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Result.error(503, "Converter service is warming up"));
+        }
         return ResponseEntity.ok(Result.success("Converter service is running"));
     }
 
@@ -66,4 +409,142 @@ public class ConverterController {
         // 测试RuntimeException
         throw new RuntimeException("这是一个测试运行时异常");
     }
+
+    /**
+     * 构建批量转换的ZIP流式响应
+     */
+    private ResponseEntity<StreamingResponseBody> batchResponse(List<ConversionSource> sources) {
+        if (sources.isEmpty()) {
+            throw new BusinessException("批量转换的文档列表不能为空");
+        }
+        if (sources.size() > batchMaxDocuments) {
+            throw new BusinessException("单次批量转换最多支持 " + batchMaxDocuments + " 个文档");
+        }
+
+        StreamingResponseBody body = outputStream -> converterService.convertBatchToZip(sources, outputStream);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=converted.zip")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    /**
+     * 流式上传接口的渲染引擎，未指定时使用 native（可增量解析）
+     */
+    private RenderEngine resolveUploadEngine(String renderer) {
+        if (renderer == null || renderer.isBlank()) {
+            return RenderEngine.NATIVE;
+        }
+        return converterService.resolveRenderEngine(renderer);
+    }
+
+    private static boolean isGzipType(String contentType) {
+        return "application/gzip".equalsIgnoreCase(contentType) || "application/x-gzip".equalsIgnoreCase(contentType);
+    }
+
+    /**
+     * 打开上传内容，gzip时包装为解压流（解压后的大小由服务层限制）
+     */
+    /**
+     * 请求体没有Content-Length时限流只预扣了默认大小，按读入的正文补扣差额
+     */
+    private void settleRateLimit(HttpServletRequest request, String markdownContent) {
+        ConversionRateLimiter.Decision rateLimit =
+                (ConversionRateLimiter.Decision) request.getAttribute(ConversionRateLimitInterceptor.DECISION_ATTRIBUTE);
+        if (rateLimit != null && rateLimit.isLengthUnknown() && markdownContent != null) {
+            rateLimiter.settle(rateLimit, markdownContent.getBytes(StandardCharsets.UTF_8).length);
+        }
+    }
+
+    private static InputStream openMarkdownStream(InputStream in, boolean gzip) throws IOException {
+        return gzip ? new GZIPInputStream(in, 8192) : in;
+    }
+
+    /**
+     * 构建Word文档的流式下载响应
+     */
+    private static ResponseEntity<StreamingResponseBody> docxStreamResponse(StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=converted.docx")
+                .contentType(MediaType.parseMediaType(DOCX_CONTENT_TYPE))
+                .body(body);
+    }
+
+    /**
+     * 发送磁盘缓存中的转换结果
+     * Tomcat支持时使用sendfile（零拷贝），否则用 FileChannel.transferTo 写入响应流；缓存文件不删除
+     *
+     * @return 响应，文件在查找之后已被淘汰时返回null，由调用方重新转换
+     */
+    private ResponseEntity<?> cachedFileResponse(Path file, String eTag, HttpServletRequest request) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=converted.docx")
+                .contentType(MediaType.parseMediaType(DOCX_CONTENT_TYPE))
+                .eTag(eTag);
+        try {
+            if (FileTransferUtil.isSendfileSupported(request)) {
+                // 连接器在响应提交后才打开文件，刚命中的文件在淘汰宽限期内不会被删除
+                long size = Files.size(file);
+                converterMetrics.increment("disk-cache.sendfile");
+                FileTransferUtil.sendfile(request, file, 0, size);
+                return builder.contentLength(size).build();
+            }
+            // 先打开文件再返回，之后即使被淘汰删除也能读完
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            long size = channel.size();
+            StreamingResponseBody body = outputStream -> {
+                try (channel) {
+                    FileTransferUtil.transfer(channel, 0, size, outputStream);
+                }
+            };
+            return builder.contentLength(size).body(body);
+        } catch (NoSuchFileException e) {
+            // 查找之后被并发淘汰，按未命中处理
+            converterMetrics.increment("disk-cache.evicted-before-serve");
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 发送落盘的转换结果，带Content-Length，发送结束后删除临时文件
+     */
+    private ResponseEntity<StreamingResponseBody> spilledResponse(Path file, String eTag) {
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (IOException e) {
+            spillFileStore.delete(file);
+            throw new UncheckedIOException(e);
+        }
+        StreamingResponseBody body = outputStream -> spillFileStore.transferTo(file, outputStream);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=converted.docx")
+                .contentType(MediaType.parseMediaType(DOCX_CONTENT_TYPE))
+                .contentLength(size)
+                .eTag(eTag)
+                .body(body);
+    }
+
+    /**
+     * 判断 If-None-Match 是否包含当前ETag（支持多个值和弱校验前缀）
+     * 只匹配具体的实体标签：* 只对GET/HEAD已存在的表示有意义，转换POST的客户端不一定收到过该内容
+     */
+    private boolean eTagMatches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (eTag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -2,22 +2,32 @@ package com.example.mdtoword.controller;
 
 import com.example.mdtoword.pojo.Result;
 import com.example.mdtoword.service.UserService;
+import com.example.mdtoword.util.FileTransferUtil;
 import com.example.mdtoword.util.FileUploadUtil;
 import com.example.mdtoword.util.SecurityUtil;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 文件控制器
@@ -30,6 +40,9 @@ import java.nio.file.Paths;
 @RequestMapping("/api/file")
 public class FileController {
 
+    // 上传文件内容不会变化，允许浏览器和CDN缓存一年且无需重新验证
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
     @Autowired
     private FileUploadUtil fileUploadUtil;
 
@@ -97,57 +110,179 @@ public class FileController {
      * 访问富文本图片
      */
     @GetMapping("/rte/{year}/{month}/{fileName:.+}")
-    public ResponseEntity<Resource> getRteImage(@PathVariable String year, @PathVariable String month, @PathVariable String fileName) {
+    public ResponseEntity<?> getRteImage(@PathVariable String year, @PathVariable String month, @PathVariable String fileName,
+                                         HttpServletRequest request) {
+        return serveUploadedFile(Paths.get(rteUploadBasePath), year + "/" + month + "/" + fileName, request);
+    }
+
+    /**
+     * 访问头像文件
+     */
+    @GetMapping("/avatar/{fileName:.+}")
+    public ResponseEntity<?> getAvatar(@PathVariable String fileName, HttpServletRequest request) {
+        return serveUploadedFile(Paths.get(uploadPath), fileName, request);
+    }
+
+    /**
+     * 发送上传的文件
+     *
+     * 上传文件名为UUID，写入后不再修改，因此：
+     * 1. Cache-Control 为一年且 immutable，浏览器在有效期内不再发起请求
+     * 2. ETag 由文件大小和修改时间生成（强校验），同时返回 Last-Modified；
+     *    If-None-Match 优先于 If-Modified-Since，匹配时返回304
+     * 3. 支持单个字节区间的 Range 请求（返回206），If-Range 不匹配或多区间时返回完整文件，区间无效时返回416
+     * 4. Tomcat支持时使用sendfile（零拷贝），否则用 FileChannel.transferTo 写入响应流
+     */
+    private ResponseEntity<?> serveUploadedFile(Path baseDir, String relativePath, HttpServletRequest request) {
+        Path base = baseDir.toAbsolutePath().normalize();
+        Path file = base.resolve(relativePath).normalize();
+        // 拒绝 ../ 等越出上传目录的路径
+        if (!file.startsWith(base)) {
+            return ResponseEntity.notFound().build();
+        }
+        BasicFileAttributes attributes;
         try {
-            Path filePath = Paths.get(rteUploadBasePath).resolve(year).resolve(month).resolve(fileName).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-            if (resource.exists() && resource.isReadable()) {
-                String contentType;
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!attributes.isRegularFile()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        long size = attributes.size();
+        // HTTP日期精确到秒
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+        String eTag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "\"";
+
+        if (isNotModified(request, eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .lastModified(lastModified)
+                    .cacheControl(IMMUTABLE)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder;
+        long start = 0;
+        long end = size;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && isRangeApplicable(request.getHeader(HttpHeaders.IF_RANGE), eTag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            if (ranges.size() == 1) {
+                HttpRange httpRange = ranges.get(0);
                 try {
-                    contentType = java.nio.file.Files.probeContentType(filePath);
-                } catch (IOException ex) {
-                    contentType = null;
+                    start = httpRange.getRangeStart(size);
+                    end = httpRange.getRangeEnd(size) + 1;
+                } catch (IllegalArgumentException e) {
+                    start = size;
+                }
+                if (start >= size || start >= end) {
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                            .build();
+                }
+            }
+        }
+        if (end - start < size) {
+            builder = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + size);
+        } else {
+            builder = ResponseEntity.ok();
+        }
+
+        String fileName = file.getFileName().toString();
+        builder.contentType(MediaType.parseMediaType(contentType(file)))
+                .contentLength(end - start)
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .cacheControl(IMMUTABLE)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"");
+
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || end == start) {
+            return builder.build();
+        }
+        if (FileTransferUtil.isSendfileSupported(request)) {
+            FileTransferUtil.sendfile(request, file, start, end);
+            return builder.build();
+        }
+        long from = start;
+        long to = end;
+        StreamingResponseBody body = outputStream -> FileTransferUtil.transfer(file, from, to, outputStream);
+        return builder.body(body);
+    }
+
+    /**
+     * 条件请求：有 If-None-Match 时只比较ETag，否则比较 If-Modified-Since
+     */
+    private static boolean isNotModified(HttpServletRequest request, String eTag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String value = candidate.trim();
+                // If-None-Match 使用弱比较
+                if (value.startsWith("W/")) {
+                    value = value.substring(2);
                 }
-                if (contentType == null) {
-                    String lower = fileName.toLowerCase();
-                    if (lower.endsWith(".png")) contentType = MediaType.IMAGE_PNG_VALUE;
-                    else if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) contentType = MediaType.IMAGE_JPEG_VALUE;
-                    else if (lower.endsWith(".gif")) contentType = MediaType.IMAGE_GIF_VALUE;
-                    else if (lower.endsWith(".webp")) contentType = "image/webp";
-                    else if (lower.endsWith(".svg")) contentType = "image/svg+xml";
-                    else contentType = MediaType.APPLICATION_OCTET_STREAM_VALUE;
+                if ("*".equals(value) || eTag.equals(value)) {
+                    return true;
                 }
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
             }
-        } catch (MalformedURLException e) {
-            return ResponseEntity.badRequest().build();
+            return false;
         }
+        long ifModifiedSince = parseDateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
     }
 
     /**
-     * 访问头像文件
+     * If-Range 为ETag时需强匹配，为日期时需与 Last-Modified 相同；没有 If-Range 时总是按 Range 处理
      */
-    @GetMapping("/avatar/{fileName:.+}")
-    public ResponseEntity<Resource> getAvatar(@PathVariable String fileName) {
+    private static boolean isRangeApplicable(String ifRange, String eTag, long lastModified) {
+        if (ifRange == null || ifRange.isBlank()) {
+            return true;
+        }
+        String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            return eTag.equals(value);
+        }
         try {
-            Path filePath = Paths.get(uploadPath).resolve(fileName).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists() && resource.isReadable()) {
-                return ResponseEntity.ok()
-                    .contentType(MediaType.IMAGE_JPEG)
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                    .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-        } catch (MalformedURLException e) {
-            return ResponseEntity.badRequest().build();
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() == lastModified;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static long parseDateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            // 日期格式错误时忽略该请求头
+            return -1;
+        }
+    }
+
+    private static String contentType(Path file) {
+        String contentType;
+        try {
+            contentType = Files.probeContentType(file);
+        } catch (IOException ex) {
+            contentType = null;
+        }
+        if (contentType != null) {
+            return contentType;
         }
+        String lower = file.getFileName().toString().toLowerCase();
+        if (lower.endsWith(".png")) return MediaType.IMAGE_PNG_VALUE;
+        else if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) return MediaType.IMAGE_JPEG_VALUE;
+        else if (lower.endsWith(".gif")) return MediaType.IMAGE_GIF_VALUE;
+        else if (lower.endsWith(".webp")) return "image/webp";
+        else if (lower.endsWith(".svg")) return "image/svg+xml";
+        else return MediaType.APPLICATION_OCTET_STREAM_VALUE;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,230 @@
+package com.example.mdtoword.converter;
+
+import com.example.mdtoword.exception.BusinessException;
+import com.example.mdtoword.exception.TooManyRequestsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 转换准入控制（内存隔离舱）
+ *
+ * 设计说明：
+ * 1. poi-tl/XWPF 渲染时的堆占用约为输入大小的10~30倍，并发的大文档可能导致内存溢出
+ * 2. 每次转换前根据Markdown长度、表格行数、图片数量估算堆占用
+ * 3. 所有进行中转换的估算总和不超过配置的内存预算，超出时排队等待
+ * 4. 排队人数或等待时间超过上限时拒绝（429），单个文档估算超过整个预算时直接拒绝
+ *
+ * 预算以KB为单位映射为公平信号量的许可数，按到达顺序放行，大文档不会被小文档饿死
+ */
+@Component
+public class ConversionAdmissionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversionAdmissionController.class);
+
+    // 模板、文档对象等固定开销
+    private static final long BASE_COST_BYTES = 4L * 1024 * 1024;
+    // 每个表格行的额外开销（XWPFTable行、单元格、段落对象）
+    private static final long TABLE_ROW_COST_BYTES = 16L * 1024;
+    // 每张图片的额外开销（解码与嵌入）
+    private static final long IMAGE_COST_BYTES = 2L * 1024 * 1024;
+
+    @Value("${converter.admission.memory-budget-mb:512}")
+    private long memoryBudgetMb;
+
+    // 每个输入字符估算的堆占用字节数
+    @Value("${converter.admission.bytes-per-char:40}")
+    private long bytesPerChar;
+
+    @Value("${converter.admission.max-queued:50}")
+    private int maxQueued;
+
+    @Value("${converter.admission.max-wait-ms:10000}")
+    private long maxWaitMillis;
+
+    private final ConverterMetrics metrics;
+
+    private final AtomicLong inFlightBytes = new AtomicLong();
+
+    private Semaphore budget;
+    private int budgetKb;
+
+    public ConversionAdmissionController(ConverterMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @PostConstruct
+    public void init() {
+        budgetKb = (int) Math.min(Integer.MAX_VALUE, memoryBudgetMb * 1024);
+        budget = new Semaphore(budgetKb, true);
+        metrics.registerGauge("admission.in-flight-bytes", inFlightBytes::get);
+        metrics.registerGauge("admission.waiting", () -> budget.getQueueLength());
+        metrics.registerGauge("admission.budget-bytes", () -> memoryBudgetMb * 1024 * 1024);
+    }
+
+    /**
+     * 估算转换一篇Markdown所需的堆内存
+     * 单次线性扫描统计表格行数和图片数量
+     *
+     * @param markdownContent Markdown内容
+     * @return 估算字节数
+     */
+    public long estimateCost(String markdownContent) {
+        return estimateCost(MarkdownComplexity.of(markdownContent));
+    }
+
+    /**
+     * 按已有的复杂度统计估算堆内存，避免重复扫描
+     *
+     * @param complexity 复杂度统计
+     * @return 估算字节数
+     */
+    public long estimateCost(MarkdownComplexity complexity) {
+        return BASE_COST_BYTES + complexity.getChars() * bytesPerChar
+                + complexity.getTableRows() * TABLE_ROW_COST_BYTES + complexity.getImages() * IMAGE_COST_BYTES;
+    }
+
+    /**
+     * 申请转换所需的内存预算，预算不足时排队等待
+     *
+     * @param costBytes 估算字节数
+     * @return 准入凭证，转换结束后必须关闭以归还预算
+     * @throws BusinessException 单个文档超过整个预算时抛出
+     * @throws TooManyRequestsException 排队过多或等待超时时抛出
+     */
+    public Admission acquire(long costBytes) {
+        int permits = permitsFor(costBytes);
+        reserve(permits, costBytes);
+        metrics.increment("admission.admitted");
+        inFlightBytes.addAndGet(costBytes);
+        return new Admission(permits, costBytes);
+    }
+
+    /**
+     * 逐段流式转换（Word转Markdown）的预算：只保留当前段落和少量映射表，按固定开销估算
+     *
+     * @return 估算字节数
+     */
+    public long estimateStreamingCost() {
+        return BASE_COST_BYTES;
+    }
+
+    /**
+     * 解析前按输入字节数预估的初始预算
+     * 字符数不超过字节数，按字节数估算只会偏大；超过整个预算时按整个预算申请，解析后再按实际统计调整
+     *
+     * @param expectedBytes 输入字节数，未知（分块传输、gzip）时为-1
+     * @param defaultBytes 输入字节数未知时按此字节数估算
+     * @return 估算字节数
+     */
+    public long estimateInitialCost(long expectedBytes, long defaultBytes) {
+        long bytes = expectedBytes >= 0 ? expectedBytes : defaultBytes;
+        long cost = BASE_COST_BYTES + Math.min(bytes, Long.MAX_VALUE / bytesPerChar) * bytesPerChar;
+        return Math.min(cost, getBudgetBytes());
+    }
+
+    /**
+     * @return 内存预算字节数
+     */
+    public long getBudgetBytes() {
+        return (long) budgetKb * 1024;
+    }
+
+    private static int permitsFor(long costBytes) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, (costBytes + 1023) / 1024));
+    }
+
+    private void reserve(int permits, long costBytes) {
+        if (permits > budgetKb) {
+            metrics.increment("admission.rejected.too-large");
+            throw new BusinessException(413, "文档过大，超出转换内存预算");
+        }
+        if (budget.getQueueLength() >= maxQueued) {
+            metrics.increment("admission.rejected.queue-full");
+            throw new TooManyRequestsException("转换请求过多，请稍后重试", retryAfterSeconds());
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = budget.tryAcquire(permits, maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(503, "转换等待被中断");
+        }
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        metrics.add("admission.wait-time-ms", waitMillis);
+
+        if (!acquired) {
+            metrics.increment("admission.rejected.timeout");
+            logger.warn("转换准入等待超时，估算占用: {} 字节，等待: {} ms", costBytes, waitMillis);
+            throw new TooManyRequestsException("转换请求过多，请稍后重试", retryAfterSeconds());
+        }
+    }
+
+    private long retryAfterSeconds() {
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(maxWaitMillis));
+    }
+
+    /**
+     * 准入凭证，关闭时归还预算
+     * 流式解析时先按预估申请，读取过程中随实际统计调整
+     */
+    public class Admission implements AutoCloseable {
+
+        private int permits;
+        private long costBytes;
+        private boolean released;
+
+        private Admission(int permits, long costBytes) {
+            this.permits = permits;
+            this.costBytes = costBytes;
+        }
+
+        /**
+         * 调整占用的预算：变小时立即归还多余部分，变大时申请差额（同样受排队和等待上限约束）
+         *
+         * @param newCostBytes 新的估算字节数
+         * @throws BusinessException 新估算超过整个预算时抛出
+         * @throws TooManyRequestsException 差额等待超时时抛出
+         */
+        public void resize(long newCostBytes) {
+            if (released) {
+                throw new IllegalStateException("准入凭证已关闭");
+            }
+            int newPermits = permitsFor(newCostBytes);
+            if (newPermits > permits) {
+                if (newPermits > budgetKb) {
+                    metrics.increment("admission.rejected.too-large");
+                    throw new BusinessException(413, "文档过大，超出转换内存预算");
+                }
+                reserve(newPermits - permits, newCostBytes - costBytes);
+                metrics.increment("admission.grown");
+            } else if (newPermits < permits) {
+                budget.release(permits - newPermits);
+            }
+            inFlightBytes.addAndGet(newCostBytes - costBytes);
+            permits = newPermits;
+            costBytes = newCostBytes;
+        }
+
+        public long getCostBytes() {
+            return costBytes;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                inFlightBytes.addAndGet(-costBytes);
+                budget.release(permits);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.mdtoword.converter;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * 转换的协作式取消检查
+ *
+ * 转换超时后执行线程会被中断，但 POI 的渲染和序列化本身不响应中断。
+ * 渲染代码在块级元素、表格行和阶段之间调用 checkpoint，发现中断后立即停止，
+ * 避免已超时的转换继续占用CPU
+ */
+public final class ConversionCancellation {
+
+    private ConversionCancellation() {
+    }
+
+    /**
+     * 当前线程已被中断时抛出 CancellationException（保留中断标记）
+     */
+    public static void checkpoint() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("转换已取消");
+        }
+    }
+}
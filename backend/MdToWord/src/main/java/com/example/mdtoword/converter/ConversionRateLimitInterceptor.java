@@ -0,0 +1,69 @@
+package com.example.mdtoword.converter;
+
+import com.example.mdtoword.exception.TooManyRequestsException;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * 转换接口限流拦截器
+ *
+ * 在读取请求体之前按 Content-Length 扣减令牌（见 ConversionRateLimiter），
+ * 响应带 X-RateLimit-Limit / X-RateLimit-Remaining / X-RateLimit-Reset（秒），
+ * 令牌不足时返回429和Retry-After。拦截的路径在 ConverterConfig 中注册。
+ * 放行的限流结果保存在请求属性 DECISION_ATTRIBUTE 中，长度未知的请求体读完后由处理方调用 settle 补扣
+ */
+@Component
+public class ConversionRateLimitInterceptor implements HandlerInterceptor {
+
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String RESET_HEADER = "X-RateLimit-Reset";
+    public static final String DECISION_ATTRIBUTE = ConversionRateLimitInterceptor.class.getName() + ".decision";
+
+    private final ConversionRateLimiter rateLimiter;
+
+    public ConversionRateLimitInterceptor(ConversionRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // 只限制提交转换的请求，查询任务状态等GET请求不消耗令牌；
+        // 流式响应完成后的异步再分派不是新请求，不再扣减（此时响应可能已提交，也不能再返回429）
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !"POST".equalsIgnoreCase(request.getMethod())) {
+            return true;
+        }
+        ConversionRateLimiter.Decision decision = rateLimiter.acquire(caller(request), request.getContentLengthLong());
+        if (decision == null) {
+            return true;
+        }
+        response.setHeader(LIMIT_HEADER, String.valueOf(decision.getLimit()));
+        response.setHeader(REMAINING_HEADER, String.valueOf(decision.getRemaining()));
+        response.setHeader(RESET_HEADER, String.valueOf(decision.getResetSeconds()));
+        if (!decision.isAllowed()) {
+            throw new TooManyRequestsException("转换请求过于频繁，请 " + decision.getRetryAfterSeconds() + " 秒后重试",
+                    decision.getRetryAfterSeconds());
+        }
+        request.setAttribute(DECISION_ATTRIBUTE, decision);
+        return true;
+    }
+
+    /**
+     * 调用方标识：登录用户按用户名，匿名请求按客户端IP
+     * 部署在反向代理之后时需开启 server.forward-headers-strategy，使 getRemoteAddr 返回真实客户端地址
+     */
+    private static String caller(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.mdtoword.converter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 转换请求限流（按调用方的令牌桶，Redis共享）
+ *
+ * 设计说明：
+ * 1. 每个调用方（登录用户按用户名，匿名请求按IP）一个令牌桶，容量与补充速率可配置
+ * 2. 桶状态保存在Redis中，由Lua脚本原子地补充和扣减（scripts/token-bucket.lua），多节点共享同一限额；
+ *    时间取Redis服务器时间，不受各节点时钟偏差影响
+ * 3. 单次消耗 = 1 + 请求体字节数 / converter.rate-limit.bytes-per-token，大文档消耗更多令牌；
+ *    超过桶容量时按容量计算，否则大请求永远无法通过。没有 Content-Length 的请求（分块传输）
+ *    先按 converter.rate-limit.unknown-length-bytes（默认1MB）计费，读完请求体后由 settle 按实际字节数补扣差额，
+ *    既不能绕过按大小计费，也不会因为一次分块上传就扣空整个桶
+ * 4. Redis不可用时放行（fail open），并在 converter.rate-limit.failure-backoff-ms 内不再访问Redis，
+ *    避免每个请求都等待连接超时；限流失效期间仍有准入控制和线程池队列保护
+ * 5. 放行、拒绝、Redis异常次数写入 ConverterMetrics（ratelimit.*）
+ */
+@Component
+public class ConversionRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversionRateLimiter.class);
+
+    @Value("${converter.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    // 桶容量（令牌数），即允许的突发请求量
+    @Value("${converter.rate-limit.capacity:60}")
+    private long capacity;
+
+    // 每秒补充的令牌数
+    @Value("${converter.rate-limit.refill-per-second:1}")
+    private double refillPerSecond;
+
+    // 每多少字节请求体额外消耗一个令牌
+    @Value("${converter.rate-limit.bytes-per-token:65536}")
+    private long bytesPerToken;
+
+    // 请求体长度未知时预先按该字节数计费，读完请求体后再按实际大小补扣
+    @Value("${converter.rate-limit.unknown-length-bytes:1048576}")
+    private long unknownLengthBytes;
+
+    @Value("${converter.rate-limit.key-prefix:ratelimit:converter}")
+    private String keyPrefix;
+
+    // Redis异常后暂停访问Redis的时间（毫秒）
+    @Value("${converter.rate-limit.failure-backoff-ms:30000}")
+    private long failureBackoffMillis;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ConverterMetrics metrics;
+
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> script;
+
+    // 在此时间之前跳过Redis直接放行
+    private volatile long bypassUntil;
+
+    public ConversionRateLimiter(ObjectProvider<StringRedisTemplate> redisTemplate, ConverterMetrics metrics) {
+        this.redisTemplate = redisTemplate.getIfAvailable();
+        this.metrics = metrics;
+        this.script = new DefaultRedisScript<>();
+        this.script.setLocation(new ClassPathResource("scripts/token-bucket.lua"));
+        this.script.setResultType(List.class);
+    }
+
+    /**
+     * 扣减调用方的令牌
+     *
+     * @param caller 调用方标识（user:用户名 或 ip:地址）
+     * @param contentLength 请求体字节数，未知时传-1
+     * @return 限流结果，未启用或Redis不可用时返回null（放行且不带限流响应头）
+     */
+    public Decision acquire(String caller, long contentLength) {
+        if (!available()) {
+            return null;
+        }
+        long cost = cost(contentLength);
+        List<?> result = execute(caller, cost, false);
+        if (result == null) {
+            return null;
+        }
+        Decision decision = new Decision(toLong(result.get(0)) == 1, capacity, toLong(result.get(1)),
+                toLong(result.get(2)), toLong(result.get(3)), cost, contentLength < 0 ? caller : null);
+        metrics.increment(decision.isAllowed() ? "ratelimit.allowed" : "ratelimit.rejected");
+        return decision;
+    }
+
+    /**
+     * 读完长度未知的请求体后按实际字节数补扣差额
+     * 无条件扣减，令牌不足时桶变为负数，调用方后续的请求需要等待补充；实际大小不超过预扣部分时不退还
+     *
+     * @param decision acquire 返回的、按未知长度预扣的限流结果（为null或长度已知时忽略）
+     * @param actualBytes 实际读取的请求体字节数
+     */
+    public void settle(Decision decision, long actualBytes) {
+        if (decision == null || !decision.isLengthUnknown() || !available()) {
+            return;
+        }
+        long extra = cost(actualBytes) - decision.getCost();
+        if (extra > 0 && execute(decision.caller, extra, true) != null) {
+            metrics.add("ratelimit.settled-tokens", extra);
+        }
+    }
+
+    private boolean available() {
+        if (!enabled || redisTemplate == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() < bypassUntil) {
+            metrics.increment("ratelimit.bypassed");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 执行令牌桶脚本，Redis异常时进入退避期并返回null
+     */
+    private List<?> execute(String caller, long cost, boolean force) {
+        try {
+            List<?> result = redisTemplate.execute(script, List.of(keyPrefix + ":" + caller),
+                    String.valueOf(capacity), String.valueOf(refillPerSecond), String.valueOf(cost), force ? "1" : "0");
+            if (result == null || result.size() < 4) {
+                throw new IllegalStateException("限流脚本返回结果异常: " + result);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            bypassUntil = System.currentTimeMillis() + failureBackoffMillis;
+            metrics.increment("ratelimit.redis-error");
+            logger.warn("限流访问Redis失败，{} 毫秒内不限流: {}", failureBackoffMillis, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 单次请求消耗的令牌数：1 + 请求体字节数 / bytesPerToken，不超过桶容量；长度未知时按 unknownLengthBytes 计算
+     */
+    long cost(long contentLength) {
+        long length = contentLength >= 0 ? contentLength : unknownLengthBytes;
+        long extra = length > 0 && bytesPerToken > 0 ? length / bytesPerToken : 0;
+        return Math.max(1, Math.min(capacity, 1 + extra));
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value));
+    }
+
+    /**
+     * 限流结果
+     */
+    public static final class Decision {
+        private final boolean allowed;
+        private final long limit;
+        private final long remaining;
+        private final long retryAfterMillis;
+        private final long resetMillis;
+        private final long cost;
+        // 按未知长度预扣时记录调用方，供 settle 补扣
+        private final String caller;
+
+        Decision(boolean allowed, long limit, long remaining, long retryAfterMillis, long resetMillis, long cost,
+                 String caller) {
+            this.allowed = allowed;
+            this.limit = limit;
+            this.remaining = remaining;
+            this.retryAfterMillis = retryAfterMillis;
+            this.resetMillis = resetMillis;
+            this.cost = cost;
+            this.caller = caller;
+        }
+
+        public boolean isAllowed() {
+            return allowed;
+        }
+
+        /**
+         * 桶容量
+         */
+        public long getLimit() {
+            return limit;
+        }
+
+        /**
+         * 本次扣减后的剩余令牌数
+         */
+        public long getRemaining() {
+            return remaining;
+        }
+
+        /**
+         * 被拒绝时，积累足够令牌需要等待的秒数（向上取整）
+         */
+        public long getRetryAfterSeconds() {
+            return Math.max(1, (retryAfterMillis + 999) / 1000);
+        }
+
+        /**
+         * 桶补满需要的秒数（向上取整）
+         */
+        public long getResetSeconds() {
+            return (resetMillis + 999) / 1000;
+        }
+
+        public long getCost() {
+            return cost;
+        }
+
+        /**
+         * 是否按未知长度预扣（需要在读完请求体后调用 settle）
+         */
+        public boolean isLengthUnknown() {
+            return caller != null;
+        }
+    }
+}
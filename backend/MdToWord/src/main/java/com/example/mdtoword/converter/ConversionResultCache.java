@@ -0,0 +1,105 @@
+package com.example.mdtoword.converter;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 转换结果缓存
+ *
+ * 设计说明：
+ * 1. 以字节数作为容量单位，而不是条目数，避免少量大文档撑爆内存
+ * 2. 基于访问顺序的 LinkedHashMap 实现 LRU，超出容量时从最久未访问的条目开始淘汰
+ * 3. 单个结果超过总容量时不缓存
+ * 4. 命中、未命中、淘汰次数写入 ConverterMetrics，前缀为构造时传入的名称
+ *
+ * 缓存中的字节数组为共享只读对象，调用方不得修改
+ */
+public class ConversionResultCache {
+
+    private final String name;
+    private final long maxBytes;
+    private final ConverterMetrics metrics;
+
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long currentBytes;
+
+    /**
+     * @param name 缓存名称，用作指标前缀
+     * @param maxBytes 最大占用字节数
+     * @param metrics 指标记录
+     */
+    public ConversionResultCache(String name, long maxBytes, ConverterMetrics metrics) {
+        this.name = name;
+        this.maxBytes = maxBytes;
+        this.metrics = metrics;
+        metrics.registerGauge(name + ".bytes", this::getCurrentBytes);
+        metrics.registerGauge(name + ".entries", this::size);
+        metrics.registerGauge(name + ".max-bytes", () -> maxBytes);
+    }
+
+    /**
+     * 读取缓存
+     *
+     * @param key 缓存键
+     * @return 缓存的文档字节，未命中返回null
+     */
+    public byte[] get(String key) {
+        byte[] value;
+        synchronized (this) {
+            value = entries.get(key);
+        }
+        metrics.increment(name + (value != null ? ".hit" : ".miss"));
+        return value;
+    }
+
+    /**
+     * 写入缓存，必要时淘汰最久未访问的条目
+     *
+     * @param key 缓存键
+     * @param value 文档字节
+     */
+    public void put(String key, byte[] value) {
+        if (maxBytes <= 0 || value.length > maxBytes) {
+            return;
+        }
+        int evicted = 0;
+        synchronized (this) {
+            byte[] previous = entries.put(key, value);
+            if (previous != null) {
+                currentBytes -= previous.length;
+            }
+            currentBytes += value.length;
+
+            Iterator<Map.Entry<String, byte[]>> iterator = entries.entrySet().iterator();
+            while (currentBytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<String, byte[]> eldest = iterator.next();
+                if (eldest.getKey().equals(key)) {
+                    continue;
+                }
+                currentBytes -= eldest.getValue().length;
+                iterator.remove();
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            metrics.add(name + ".eviction", evicted);
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
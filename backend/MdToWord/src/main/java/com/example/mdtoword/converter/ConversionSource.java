@@ -0,0 +1,58 @@
+package com.example.mdtoword.converter;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 批量转换的单个输入
+ *
+ * 内容在真正开始转换时才读取，批量上传的文件不需要一次性全部解码到内存
+ */
+public interface ConversionSource {
+
+    /**
+     * 文档名称（不含扩展名时由调用方补充）
+     */
+    String getName();
+
+    /**
+     * 读取Markdown内容
+     */
+    String load() throws IOException;
+
+    /**
+     * 由已有文本创建输入
+     */
+    static ConversionSource of(String name, String markdownContent) {
+        return new ConversionSource() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String load() {
+                return markdownContent;
+            }
+        };
+    }
+
+    /**
+     * 由上传文件创建输入，按UTF-8解码
+     */
+    static ConversionSource of(MultipartFile file) {
+        return new ConversionSource() {
+            @Override
+            public String getName() {
+                return file.getOriginalFilename();
+            }
+
+            @Override
+            public String load() throws IOException {
+                return new String(file.getBytes(), StandardCharsets.UTF_8);
+            }
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.mdtoword.converter;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 文档转换指标
+ *
+ * 功能：
+ * 1. 记录缓存命中、未命中、淘汰等计数器
+ * 2. 注册实时数值（如缓存当前占用字节数）
+ * 3. 汇总为快照，通过 /api/converter/stats 查看
+ * 4. 记录耗时、字节数等数值分布（直方图），通过 /api/converter/stats/histograms 查看分位数
+ *
+ * 计数器基于 LongAdder，高并发下写入不会产生竞争热点
+ */
+@Component
+public class ConverterMetrics {
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private final Map<String, Supplier<? extends Number>> gauges = new ConcurrentHashMap<>();
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    // 纳秒转毫秒
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * 计数器加一
+     *
+     * @param name 指标名称
+     */
+    public void increment(String name) {
+        add(name, 1);
+    }
+
+    /**
+     * 计数器累加
+     *
+     * @param name 指标名称
+     * @param delta 增量
+     */
+    public void add(String name, long delta) {
+        counters.computeIfAbsent(name, k -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * 获取计数器当前值
+     *
+     * @param name 指标名称
+     * @return 当前值，未记录过返回0
+     */
+    public long get(String name) {
+        LongAdder adder = counters.get(name);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * 注册实时数值，读取快照时调用
+     *
+     * @param name 指标名称
+     * @param supplier 数值提供者
+     */
+    public void registerGauge(String name, Supplier<? extends Number> supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /**
+     * 记录一次耗时，快照中以毫秒输出
+     *
+     * @param name 直方图名称，建议以 time-ms 结尾
+     * @param nanos 耗时（纳秒）
+     */
+    public void recordTime(String name, long nanos) {
+        histograms.computeIfAbsent(name, k -> new Histogram(NANOS_PER_MILLI)).record(nanos);
+    }
+
+    /**
+     * 记录一个数值（如字节数），快照中原样输出
+     *
+     * @param name 直方图名称
+     * @param value 数值
+     */
+    public void recordValue(String name, long value) {
+        histograms.computeIfAbsent(name, k -> new Histogram(1)).record(value);
+    }
+
+    /**
+     * 轮换所有直方图的统计周期，由定时任务调用
+     */
+    public void rotateHistograms() {
+        histograms.values().forEach(Histogram::rotate);
+    }
+
+    /**
+     * 生成直方图快照，按名称排序
+     *
+     * @return 直方图名称到分位数等统计值的映射
+     */
+    public Map<String, Map<String, Number>> histogramSnapshot() {
+        Map<String, Map<String, Number>> result = new TreeMap<>();
+        histograms.forEach((name, histogram) -> result.put(name, histogram.snapshot()));
+        return result;
+    }
+
+    /**
+     * 生成指标快照，按名称排序
+     *
+     * @return 指标名称到数值的映射
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new TreeMap<>();
+        counters.forEach((name, adder) -> result.put(name, adder.sum()));
+        gauges.forEach((name, supplier) -> result.put(name, supplier.get()));
+        return result;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.mdtoword.converter;
+
+import com.example.mdtoword.util.MarkdownToWordUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 转换引擎预热
+ *
+ * 设计说明：
+ * 1. POI、poi-tl 和 OOXML Schema 类在首次使用时才加载并逐步JIT编译，发布后的前几次转换会慢5~10倍
+ * 2. 应用启动时循环渲染几篇有代表性的文档（段落、列表、表格、代码块、引用），直到耗时趋于稳定
+ * 3. 作为 ApplicationRunner 执行：Spring Boot 在所有 Runner 完成后才把就绪状态切换为 ACCEPTING_TRAFFIC，
+ *    /api/converter/health 在预热完成前返回503，负载均衡据此推迟引流
+ * 4. 预热失败不阻止启动，只记录警告
+ *
+ * 预热耗时通过日志和 /api/converter/stats（warmup.*）查看
+ */
+@Component
+public class ConverterWarmup implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConverterWarmup.class);
+
+    // 判断耗时稳定的滑动窗口大小
+    private static final int STABLE_WINDOW = 5;
+
+    // 窗口内最慢与最快一次的差距不超过该比例时视为稳定
+    private static final double STABLE_SPREAD = 0.2;
+
+    @Value("${converter.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${converter.warmup.max-iterations:50}")
+    private int maxIterations;
+
+    @Value("${converter.warmup.max-duration-ms:30000}")
+    private long maxDurationMillis;
+
+    private final MarkdownToWordUtil markdownToWordUtil;
+    private final ConverterMetrics metrics;
+
+    private volatile boolean ready;
+    private volatile long durationMillis;
+    private volatile int iterations;
+
+    public ConverterWarmup(MarkdownToWordUtil markdownToWordUtil, ConverterMetrics metrics) {
+        this.markdownToWordUtil = markdownToWordUtil;
+        this.metrics = metrics;
+        metrics.registerGauge("warmup.ready", () -> ready ? 1 : 0);
+        metrics.registerGauge("warmup.duration-ms", () -> durationMillis);
+        metrics.registerGauge("warmup.iterations", () -> iterations);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            ready = true;
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<String> documents = sampleDocuments();
+        Deque<Long> recent = new ArrayDeque<>();
+        try {
+            while (iterations < maxIterations && elapsedMillis(start) < maxDurationMillis) {
+                long roundStart = System.nanoTime();
+                for (String document : documents) {
+                    markdownToWordUtil.writeMarkdownToWord(document, OutputStream.nullOutputStream());
+                }
+                iterations++;
+
+                recent.addLast(System.nanoTime() - roundStart);
+                if (recent.size() > STABLE_WINDOW) {
+                    recent.removeFirst();
+                }
+                if (isStable(recent)) {
+                    break;
+                }
+            }
+            logger.info("转换引擎预热完成，轮次: {}，耗时: {} ms，最后一轮: {} ms",
+                    iterations, elapsedMillis(start), recent.isEmpty() ? 0 : recent.getLast() / 1_000_000);
+        } catch (Exception e) {
+            logger.warn("转换引擎预热失败，跳过预热: {}", e.getMessage(), e);
+        } finally {
+            durationMillis = elapsedMillis(start);
+            // 预热产生的耗时不计入线上分位数
+            metrics.rotateHistograms();
+            metrics.rotateHistograms();
+            ready = true;
+        }
+    }
+
+    /**
+     * 预热是否已完成
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 预热耗时（毫秒），未完成时为0
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    private static boolean isStable(Deque<Long> recent) {
+        if (recent.size() < STABLE_WINDOW) {
+            return false;
+        }
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (long nanos : recent) {
+            min = Math.min(min, nanos);
+            max = Math.max(max, nanos);
+        }
+        return max - min <= min * STABLE_SPREAD;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * 代表性文档：覆盖标题、行内样式、有序/无序列表、表格、代码块、引用等渲染路径
+     */
+    private static List<String> sampleDocuments() {
+        StringBuilder mixed = new StringBuilder();
+        for (int i = 1; i <= 5; i++) {
+            mixed.append("# 第").append(i).append("章\n\n")
+                    .append("## 小节\n\n")
+                    .append("正文段落，包含**加粗**、*斜体*、`行内代码`和[链接](https://example.com)。\n\n")
+                    .append("> 引用内容\n\n")
+                    .append("1. 有序列表\n2. 第二项\n   - 嵌套无序列表\n\n")
+                    .append("| 列A | 列B | 列C |\n|-----|-----|-----|\n| 1 | 2 | 3 |\n| 4 | 5 | 6 |\n\n")
+                    .append("```java\nSystem.out.println(\"warm up\");\n```\n\n");
+        }
+
+        StringBuilder table = new StringBuilder("| 编号 | 名称 | 数量 |\n|------|------|------|\n");
+        for (int i = 1; i <= 100; i++) {
+            table.append("| ").append(i).append(" | 项目").append(i).append(" | ").append(i * 3).append(" |\n");
+        }
+
+        return List.of("# 标题\n\n简单段落。\n", mixed.toString(), table.toString());
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.mdtoword.converter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 磁盘转换结果缓存（按内容寻址，重启后保留）
+ *
+ * 设计说明：
+ * 1. 键为内容键（Markdown内容 + 模板版本 + 渲染引擎的SHA-256），模板变化后旧结果自然不再命中
+ * 2. 文件按键的前两级十六进制前缀分片存放：{dir}/ab/cd/abcd....docx，避免单目录文件过多
+ * 3. 命中时更新文件的修改时间作为访问时间（atime 常被 noatime 挂载选项关闭），重启后仍可按LRU淘汰
+ * 4. 启动时扫描目录重建内存索引（大小、访问时间），清理写入中断留下的临时文件
+ * 5. 总大小超过上限时按访问时间从旧到新淘汰，直到降到上限的90%
+ * 6. 写入先写临时文件再原子重命名，读取方不会看到半个文件
+ * 7. 查找与淘汰互斥，最近 EVICTION_GRACE_MILLIS 内命中过的文件不淘汰，避免返回给调用方的文件在发送前被删除
+ *
+ * 命中的文件由控制器直接从磁盘发送（sendfile / FileChannel.transferTo），不经过堆
+ */
+@Component
+public class DiskConversionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskConversionCache.class);
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final String FILE_SUFFIX = ".docx";
+    private static final String TEMP_SUFFIX = ".tmp";
+    // 命中后到文件被打开发送（sendfile 在响应提交后才打开）之间的保护时间
+    private static final long EVICTION_GRACE_MILLIS = 30_000;
+
+    @Value("${converter.disk-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${converter.disk-cache.dir:./data/conversion-cache}")
+    private String cacheDir;
+
+    @Value("${converter.disk-cache.max-size-mb:1024}")
+    private long maxSizeMb;
+
+    private final ConverterMetrics metrics;
+
+    // 内存索引：键 -> 文件大小与最近访问时间
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    private Path directory;
+    private long maxBytes;
+
+    public DiskConversionCache(ConverterMetrics metrics) {
+        this.metrics = metrics;
+        metrics.registerGauge("disk-cache.bytes", totalBytes::get);
+        metrics.registerGauge("disk-cache.entries", index::size);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            logger.info("磁盘转换缓存未启用");
+            return;
+        }
+        directory = Paths.get(cacheDir).toAbsolutePath().normalize();
+        maxBytes = maxSizeMb * 1024 * 1024;
+        Files.createDirectories(directory);
+        loadIndex();
+        evictIfNeeded();
+        logger.info("磁盘转换缓存: {}，文件 {} 个，共 {} 字节，上限 {} MB",
+                directory, index.size(), totalBytes.get(), maxSizeMb);
+    }
+
+    /**
+     * 查找缓存文件，命中时刷新访问时间
+     *
+     * @param key 内容键
+     * @return 文件路径，未命中返回null
+     */
+    public Path lookup(String key) {
+        if (!enabled || !isValidKey(key)) {
+            return null;
+        }
+        Path file = pathFor(key);
+        // 与淘汰互斥：刷新访问时间后，本次返回的文件在宽限期内不会被淘汰
+        synchronized (this) {
+            Entry entry = index.get(key);
+            if (entry == null) {
+                metrics.increment("disk-cache.miss");
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            entry.lastAccess = now;
+            try {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(now));
+            } catch (IOException e) {
+                // 文件已被外部删除
+                remove(key);
+                metrics.increment("disk-cache.miss");
+                return null;
+            }
+        }
+        metrics.increment("disk-cache.hit");
+        return file;
+    }
+
+    /**
+     * 读取缓存内容到内存（批量转换、异步任务等需要字节数组的场景）
+     *
+     * @param key 内容键
+     * @return 文档字节，未命中返回null
+     */
+    public byte[] read(String key) {
+        Path file = lookup(key);
+        if (file == null) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * 写入缓存，单个文件超过总上限时不缓存
+     *
+     * @param key 内容键
+     * @param content 文档字节
+     */
+    public void put(String key, byte[] content) {
+        if (!enabled || !isValidKey(key) || content.length > maxBytes || index.containsKey(key)) {
+            return;
+        }
+        Path file = pathFor(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            // 临时文件名唯一，同一内容并发写入互不干扰
+            temp = Files.createTempFile(file.getParent(), key, TEMP_SUFFIX);
+            Files.write(temp, content);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn("写入磁盘缓存失败: {}，原因: {}", key, e.getMessage());
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+            return;
+        }
+        if (index.putIfAbsent(key, new Entry(content.length, System.currentTimeMillis())) == null) {
+            totalBytes.addAndGet(content.length);
+            metrics.increment("disk-cache.put");
+        }
+        evictIfNeeded();
+    }
+
+    /**
+     * 是否启用
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 按访问时间从旧到新淘汰，直到总大小降到上限的90%
+     */
+    private synchronized void evictIfNeeded() {
+        if (totalBytes.get() <= maxBytes) {
+            return;
+        }
+        long target = maxBytes / 10 * 9;
+        // 先固定访问时间再排序，排序期间的并发访问不影响比较结果
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(index.size());
+        index.forEach((key, entry) -> entries.add(Map.entry(key, entry.lastAccess)));
+        entries.sort(Map.Entry.comparingByValue());
+        long protectedSince = System.currentTimeMillis() - EVICTION_GRACE_MILLIS;
+        int evicted = 0;
+        for (Map.Entry<String, Long> candidate : entries) {
+            if (totalBytes.get() <= target) {
+                break;
+            }
+            // 刚命中的文件可能还没开始发送，暂不淘汰（下次写入时再检查）
+            Entry entry = index.get(candidate.getKey());
+            if (entry == null || entry.lastAccess >= protectedSince) {
+                continue;
+            }
+            remove(candidate.getKey());
+            evicted++;
+        }
+        metrics.add("disk-cache.eviction", evicted);
+        logger.info("磁盘缓存淘汰 {} 个文件，当前 {} 字节", evicted, totalBytes.get());
+    }
+
+    private void remove(String key) {
+        Entry entry = index.remove(key);
+        if (entry != null) {
+            totalBytes.addAndGet(-entry.size);
+            deleteQuietly(pathFor(key));
+        }
+    }
+
+    /**
+     * 扫描缓存目录重建索引
+     */
+    private void loadIndex() throws IOException {
+        try (Stream<Path> files = Files.walk(directory, 3)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    deleteQuietly(file);
+                    return;
+                }
+                if (!name.endsWith(FILE_SUFFIX)) {
+                    return;
+                }
+                String key = name.substring(0, name.length() - FILE_SUFFIX.length());
+                if (!isValidKey(key) || !file.equals(pathFor(key))) {
+                    return;
+                }
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    index.put(key, new Entry(attributes.size(), attributes.lastModifiedTime().toMillis()));
+                    totalBytes.addAndGet(attributes.size());
+                } catch (IOException e) {
+                    logger.debug("读取缓存文件属性失败: {}", file);
+                }
+            });
+        }
+    }
+
+    private Path pathFor(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key + FILE_SUFFIX);
+    }
+
+    private static boolean isValidKey(String key) {
+        return key != null && KEY_PATTERN.matcher(key).matches();
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("删除缓存文件失败: {}", file);
+        }
+    }
+
+    /**
+     * 索引条目
+     */
+    private static class Entry {
+        private final long size;
+        private volatile long lastAccess;
+
+        Entry(long size, long lastAccess) {
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.mdtoword.converter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁直方图，用于统计耗时、字节数等数值分布并计算分位数
+ *
+ * 设计说明：
+ * 1. 对数-线性分桶：每个2的幂区间再均分为8个子桶，分位数相对误差不超过12.5%
+ * 2. 记录只做一次原子加，不分配对象，可在每次转换的热路径上调用
+ * 3. 保留“当前周期”和“上一周期”两组计数，分位数基于两者之和，
+ *    定时轮换后旧数据自然淘汰，p99 反映最近一到两个周期的情况
+ *
+ * 累计次数和累计总和不随轮换清零
+ */
+public class Histogram {
+
+    // 每个2的幂区间的子桶数（2^3）
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final double scale;
+
+    private volatile AtomicLongArray current = new AtomicLongArray(BUCKET_COUNT);
+    private volatile AtomicLongArray previous = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalSum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param scale 输出时的除数，例如纳秒记录、毫秒输出时为 1_000_000
+     */
+    public Histogram(double scale) {
+        this.scale = scale;
+    }
+
+    /**
+     * 记录一个数值，负数按0处理
+     *
+     * @param value 数值
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        current.incrementAndGet(bucketIndex(v));
+        totalCount.increment();
+        totalSum.add(v);
+        max.accumulateAndGet(v, Math::max);
+    }
+
+    /**
+     * 轮换统计周期，丢弃上一周期的数据
+     */
+    public synchronized void rotate() {
+        previous = current;
+        current = new AtomicLongArray(BUCKET_COUNT);
+    }
+
+    /**
+     * 生成快照：最近周期内的次数、分位数，以及累计次数、平均值、最大值
+     *
+     * @return 指标名称到数值的映射
+     */
+    public Map<String, Number> snapshot() {
+        AtomicLongArray cur = current;
+        AtomicLongArray prev = previous;
+        long[] counts = new long[BUCKET_COUNT];
+        long windowCount = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = cur.get(i) + prev.get(i);
+            windowCount += counts[i];
+        }
+
+        long count = totalCount.sum();
+        Map<String, Number> result = new LinkedHashMap<>();
+        result.put("count", count);
+        result.put("mean", count == 0 ? 0 : round(totalSum.sum() / (double) count / scale));
+        result.put("max", round(max.get() / scale));
+        result.put("window-count", windowCount);
+        result.put("p50", round(percentile(counts, windowCount, 0.50) / scale));
+        result.put("p90", round(percentile(counts, windowCount, 0.90) / scale));
+        result.put("p99", round(percentile(counts, windowCount, 0.99) / scale));
+        result.put("p999", round(percentile(counts, windowCount, 0.999) / scale));
+        return result;
+    }
+
+    /**
+     * 计算分位数，返回所在桶的上界（偏保守，适合告警）
+     */
+    private long percentile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (subBucket + 1) * width - 1;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.mdtoword.converter;
+
+import org.apache.poi.xwpf.usermodel.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * 本地图片解析（转换时嵌入上传的图片）
+ *
+ * 设计说明：
+ * 1. 博客中的图片来自 FileUploadUtil 上传（/api/file/rte/yyyy/MM/uuid.ext、/api/file/avatar/uuid.ext），
+ *    直接映射到本地上传目录读取，不经过HTTP；带域名的绝对地址只取路径部分。其他地址不处理
+ * 2. 宽度超过页面可用宽度（converter.image.max-width-px）的图片等比缩小后再嵌入；
+ *    超大图片解码时按比例降采样，避免把整张原图解码进堆
+ * 3. 处理后的字节按 文件路径 + 修改时间 + 大小 缓存在有界缓存中（imageCache），
+ *    重复导出同一图片时只读取图片头获取尺寸，不再解码和缩放；文件被替换后修改时间变化，自然不再命中
+ * 4. 支持 PNG、JPEG、GIF、BMP；无法解析或超过像素上限的图片返回null，由渲染器以替代文本占位
+ */
+@Component
+public class LocalImageResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalImageResolver.class);
+
+    private static final String RTE_PREFIX = "/api/file/rte/";
+    private static final String AVATAR_PREFIX = "/api/file/avatar/";
+
+    @Value("${file.upload.path:./uploads/avatars/}")
+    private String avatarPath;
+
+    @Value("${file.rte-upload.path:./uploads/rte/}")
+    private String rtePath;
+
+    // 页面可用宽度（像素，按96dpi），A4纸左右页边距各2.54厘米时约为600
+    @Value("${converter.image.max-width-px:600}")
+    private int maxWidthPx;
+
+    // 允许解码的最大像素数，防止解压炸弹
+    @Value("${converter.image.max-pixels:40000000}")
+    private long maxPixels;
+
+    private final ConversionResultCache imageCache;
+    private final ConverterMetrics metrics;
+
+    public LocalImageResolver(@Qualifier("imageCache") ConversionResultCache imageCache, ConverterMetrics metrics) {
+        this.imageCache = imageCache;
+        this.metrics = metrics;
+    }
+
+    /**
+     * 解析图片地址
+     *
+     * @param url Markdown中的图片地址
+     * @return 可嵌入的图片，不是本地上传图片或无法读取时返回null
+     */
+    public Image resolve(String url) {
+        Path file = toLocalPath(url);
+        if (file == null) {
+            return null;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return null;
+            }
+            String key = file + "|" + attributes.lastModifiedTime().toMillis() + "|" + attributes.size() + "|" + maxWidthPx;
+            byte[] cached = imageCache.get(key);
+            if (cached != null) {
+                return probe(cached, file.getFileName().toString());
+            }
+
+            long start = System.nanoTime();
+            Image image = process(Files.readAllBytes(file), file.getFileName().toString());
+            metrics.recordTime("image.process-ms", System.nanoTime() - start);
+            if (image != null) {
+                imageCache.put(key, image.getData());
+            } else {
+                metrics.increment("image.unsupported");
+            }
+            return image;
+        } catch (IOException e) {
+            logger.debug("读取图片失败: {}，原因: {}", file, e.getMessage());
+            metrics.increment("image.missing");
+            return null;
+        }
+    }
+
+    /**
+     * 将上传图片的访问地址映射为本地文件路径，不在上传目录内时返回null
+     */
+    Path toLocalPath(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        String path;
+        try {
+            path = new URI(url.trim()).getPath();
+        } catch (URISyntaxException e) {
+            return null;
+        }
+        if (path == null) {
+            return null;
+        }
+        Path base;
+        String relative;
+        if (path.startsWith(RTE_PREFIX)) {
+            base = Paths.get(rtePath);
+            relative = path.substring(RTE_PREFIX.length());
+        } else if (path.startsWith(AVATAR_PREFIX)) {
+            base = Paths.get(avatarPath);
+            relative = path.substring(AVATAR_PREFIX.length());
+        } else {
+            return null;
+        }
+        base = base.toAbsolutePath().normalize();
+        Path file = base.resolve(relative).normalize();
+        // 拒绝 ../ 等越出上传目录的路径
+        return file.startsWith(base) && !file.equals(base) ? file : null;
+    }
+
+    /**
+     * 读取尺寸，超宽时缩小；未超宽的图片保留原始字节
+     */
+    private Image process(byte[] bytes, String fileName) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            ImageReader reader = firstReader(input);
+            if (reader == null) {
+                return null;
+            }
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int pictureType = pictureType(reader.getFormatName());
+                if (pictureType < 0 || width <= 0 || height <= 0 || (long) width * height > maxPixels) {
+                    return null;
+                }
+                if (width <= maxWidthPx) {
+                    return new Image(bytes, pictureType, width, height, fileName);
+                }
+
+                // 降采样到目标宽度的两倍以内再平滑缩放，兼顾内存和画质
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, width / (maxWidthPx * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                int targetWidth = maxWidthPx;
+                int targetHeight = Math.max(1, (int) Math.round((double) height * targetWidth / width));
+                boolean alpha = decoded.getColorModel().hasAlpha();
+                BufferedImage scaled = new BufferedImage(targetWidth, targetHeight,
+                        alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+                Graphics2D graphics = scaled.createGraphics();
+                try {
+                    graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                    graphics.drawImage(decoded, 0, 0, targetWidth, targetHeight, null);
+                } finally {
+                    graphics.dispose();
+                }
+
+                // 带透明通道的图片输出PNG，其余输出JPEG（体积更小）
+                String format = alpha || pictureType != Document.PICTURE_TYPE_JPEG ? "png" : "jpeg";
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                if (!ImageIO.write(scaled, format, output)) {
+                    return null;
+                }
+                metrics.increment("image.downscaled");
+                return new Image(output.toByteArray(), pictureType(format), targetWidth, targetHeight, fileName);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 缓存命中时只读取图片头获取尺寸
+     */
+    private Image probe(byte[] bytes, String fileName) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            ImageReader reader = firstReader(input);
+            if (reader == null) {
+                return null;
+            }
+            try {
+                reader.setInput(input, true, true);
+                return new Image(bytes, pictureType(reader.getFormatName()), reader.getWidth(0), reader.getHeight(0), fileName);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static ImageReader firstReader(ImageInputStream input) {
+        if (input == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        return readers.hasNext() ? readers.next() : null;
+    }
+
+    /**
+     * ImageIO格式名对应的Word图片类型，不支持时返回-1
+     */
+    private static int pictureType(String formatName) {
+        return switch (formatName.toLowerCase(Locale.ROOT)) {
+            case "png" -> Document.PICTURE_TYPE_PNG;
+            case "jpeg", "jpg" -> Document.PICTURE_TYPE_JPEG;
+            case "gif" -> Document.PICTURE_TYPE_GIF;
+            case "bmp" -> Document.PICTURE_TYPE_BMP;
+            default -> -1;
+        };
+    }
+
+    /**
+     * 可嵌入的图片：字节、Word图片类型、像素尺寸
+     */
+    public static final class Image {
+        private final byte[] data;
+        private final int pictureType;
+        private final int width;
+        private final int height;
+        private final String fileName;
+
+        Image(byte[] data, int pictureType, int width, int height, String fileName) {
+            this.data = data;
+            this.pictureType = pictureType;
+            this.width = width;
+            this.height = height;
+            this.fileName = fileName;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        public int getPictureType() {
+            return pictureType;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+    }
+}
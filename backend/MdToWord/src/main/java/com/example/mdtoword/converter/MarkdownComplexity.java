@@ -0,0 +1,275 @@
+package com.example.mdtoword.converter;
+
+/**
+ * Markdown复杂度统计
+ *
+ * 设计说明：
+ * 1. 逐字符单遍扫描，时间与输入长度成线性关系，只保存当前行的少量状态，内存占用为常数
+ * 2. 既可以一次扫描完整字符串（of），也可以在读取上传流时逐块喂入（accept），读完后调用 finish
+ * 3. 统计项：字符数、行数、最长行、嵌套深度（引用层数 + 列表缩进层级）、表格行数与单元格数、图片数
+ * 4. 围栏代码块（``` 或 ~~~）内的 | 和 ![ 不计入表格和图片
+ *
+ * 统计为启发式近似值，用于估算渲染成本，不保证与 CommonMark 解析结果完全一致
+ */
+public class MarkdownComplexity {
+
+    /**
+     * 复杂度等级
+     */
+    public enum Level {
+        // 正常转换
+        CHEAP,
+        // 放入低优先级线程池转换
+        EXPENSIVE,
+        // 直接拒绝
+        REJECTED
+    }
+
+    private long chars;
+    private long lines;
+    private long images;
+    private long tableRows;
+    private long tableCells;
+    private int maxNestingDepth;
+    private long longestLine;
+
+    private Level level = Level.CHEAP;
+    private String reason;
+
+    // ===== 当前行状态 =====
+    private long lineLength;
+    private boolean leading = true;
+    private int indentColumns;
+    private int quoteDepth;
+    private char firstChar;
+    private boolean listMarkerPending;
+    private boolean listItem;
+    private int fenceRun;
+    private char fenceChar;
+    private int pipes;
+    private char lastNonBlank;
+    private boolean delimiterCharsOnly = true;
+    private boolean hasDash;
+    private char previous;
+
+    // ===== 跨行状态 =====
+    private boolean inTable;
+    private boolean inCodeFence;
+    private char codeFenceChar;
+
+    /**
+     * 扫描完整文本
+     *
+     * @param text Markdown内容
+     * @return 统计结果（等级为CHEAP，由 MarkdownComplexityAnalyzer 分级）
+     */
+    public static MarkdownComplexity of(CharSequence text) {
+        MarkdownComplexity complexity = new MarkdownComplexity();
+        for (int i = 0; i < text.length(); i++) {
+            complexity.accept(text.charAt(i));
+        }
+        return complexity.finish();
+    }
+
+    /**
+     * 喂入一段字符
+     */
+    public void accept(char[] buffer, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            accept(buffer[i]);
+        }
+    }
+
+    /**
+     * 喂入一个字符
+     */
+    public void accept(char c) {
+        chars++;
+        if (c == '\n') {
+            endLine();
+            return;
+        }
+        if (c == '\r') {
+            return;
+        }
+        lineLength++;
+
+        if (leading) {
+            if (c == ' ') {
+                indentColumns++;
+                return;
+            }
+            if (c == '\t') {
+                indentColumns += 4;
+                return;
+            }
+            if (c == '>') {
+                quoteDepth++;
+                indentColumns = 0;
+                return;
+            }
+            leading = false;
+            firstChar = c;
+            listMarkerPending = c == '-' || c == '*' || c == '+' || (c >= '0' && c <= '9');
+            if (c == '`' || c == '~') {
+                fenceChar = c;
+            }
+        } else if (listMarkerPending) {
+            if (c == ' ' || c == '\t') {
+                listItem = true;
+                listMarkerPending = false;
+            } else if (!(c >= '0' && c <= '9') && c != '.' && c != ')') {
+                listMarkerPending = false;
+            }
+        }
+
+        if (fenceChar != 0 && fenceRun >= 0) {
+            if (c == fenceChar) {
+                fenceRun++;
+            } else {
+                fenceRun = -fenceRun - 1;
+            }
+        }
+
+        if (!inCodeFence) {
+            if (c == '|') {
+                pipes++;
+            } else if (c == '[' && previous == '!') {
+                images++;
+            }
+        }
+        if (c != ' ' && c != '\t') {
+            lastNonBlank = c;
+            if (c != '|' && c != '-' && c != ':') {
+                delimiterCharsOnly = false;
+            }
+            if (c == '-') {
+                hasDash = true;
+            }
+        }
+        previous = c;
+    }
+
+    /**
+     * 结束扫描，处理最后一行
+     *
+     * @return 当前对象
+     */
+    public MarkdownComplexity finish() {
+        if (lineLength > 0 || !leading) {
+            endLine();
+        }
+        return this;
+    }
+
+    private void endLine() {
+        lines++;
+        longestLine = Math.max(longestLine, lineLength);
+
+        int fence = fenceRun >= 0 ? fenceRun : -fenceRun - 1;
+        if (fence >= 3) {
+            if (!inCodeFence) {
+                inCodeFence = true;
+                codeFenceChar = fenceChar;
+            } else if (fenceChar == codeFenceChar) {
+                inCodeFence = false;
+            }
+        } else if (!inCodeFence) {
+            measureLine();
+        }
+        resetLine();
+    }
+
+    private void measureLine() {
+        boolean blank = leading;
+        if (blank) {
+            inTable = false;
+            return;
+        }
+
+        int listDepth = listItem ? indentColumns / 2 + 1 : 0;
+        maxNestingDepth = Math.max(maxNestingDepth, quoteDepth + listDepth);
+
+        // 分隔行（|---|:---:|）之后的行属于表格，空行结束表格
+        if (pipes > 0 && delimiterCharsOnly && hasDash) {
+            inTable = true;
+        }
+        if (firstChar == '|' || (inTable && pipes > 0)) {
+            tableRows++;
+            long cells = pipes + 1L - (firstChar == '|' ? 1 : 0) - (lastNonBlank == '|' ? 1 : 0);
+            tableCells += Math.max(1, cells);
+        }
+    }
+
+    private void resetLine() {
+        lineLength = 0;
+        leading = true;
+        indentColumns = 0;
+        quoteDepth = 0;
+        firstChar = 0;
+        listMarkerPending = false;
+        listItem = false;
+        fenceRun = 0;
+        fenceChar = 0;
+        pipes = 0;
+        lastNonBlank = 0;
+        delimiterCharsOnly = true;
+        hasDash = false;
+        previous = 0;
+    }
+
+    /**
+     * 设置分级结果
+     *
+     * @param level 等级
+     * @param reason 超出的限制说明，CHEAP时为null
+     */
+    void classify(Level level, String reason) {
+        this.level = level;
+        this.reason = reason;
+    }
+
+    public long getChars() {
+        return chars;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getImages() {
+        return images;
+    }
+
+    public long getTableRows() {
+        return tableRows;
+    }
+
+    public long getTableCells() {
+        return tableCells;
+    }
+
+    public int getMaxNestingDepth() {
+        return maxNestingDepth;
+    }
+
+    public long getLongestLine() {
+        // 包含尚未结束的当前行，读取中途即可发现超长单行
+        return Math.max(longestLine, lineLength);
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return "MarkdownComplexity{chars=" + chars + ", lines=" + lines + ", longestLine=" + longestLine
+                + ", nesting=" + maxNestingDepth + ", tableRows=" + tableRows + ", tableCells=" + tableCells
+                + ", images=" + images + ", level=" + level + "}";
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.mdtoword.converter;
+
+import com.example.mdtoword.exception.BusinessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * 转换前的Markdown复杂度分析
+ *
+ * 设计说明：
+ * 1. 在进入POI之前单遍扫描输入（见 MarkdownComplexity），按可配置的阈值分为三级：
+ *    CHEAP 正常转换；EXPENSIVE 放入低优先级线程池；REJECTED 直接返回422
+ * 2. 病态输入（深层嵌套列表、十万行表格、超长单行）在扫描阶段就被识别，
+ *    不必等到渲染消耗数秒CPU后才超时失败
+ * 3. 各等级的次数写入 ConverterMetrics（complexity.*）
+ */
+@Component
+public class MarkdownComplexityAnalyzer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarkdownComplexityAnalyzer.class);
+
+    // ===== 超过以下阈值视为昂贵文档 =====
+    @Value("${converter.complexity.expensive.lines:50000}")
+    private long expensiveLines;
+
+    @Value("${converter.complexity.expensive.line-length:100000}")
+    private long expensiveLineLength;
+
+    @Value("${converter.complexity.expensive.nesting-depth:8}")
+    private int expensiveNestingDepth;
+
+    @Value("${converter.complexity.expensive.table-cells:20000}")
+    private long expensiveTableCells;
+
+    @Value("${converter.complexity.expensive.images:50}")
+    private long expensiveImages;
+
+    // ===== 超过以下阈值直接拒绝 =====
+    @Value("${converter.complexity.reject.lines:2000000}")
+    private long rejectLines;
+
+    @Value("${converter.complexity.reject.line-length:5000000}")
+    private long rejectLineLength;
+
+    @Value("${converter.complexity.reject.nesting-depth:32}")
+    private int rejectNestingDepth;
+
+    @Value("${converter.complexity.reject.table-cells:1000000}")
+    private long rejectTableCells;
+
+    @Value("${converter.complexity.reject.images:1000}")
+    private long rejectImages;
+
+    private final ConverterMetrics metrics;
+
+    public MarkdownComplexityAnalyzer(ConverterMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 扫描并分级
+     *
+     * @param markdownContent Markdown内容
+     * @return 统计与分级结果
+     */
+    public MarkdownComplexity analyze(String markdownContent) {
+        return classify(MarkdownComplexity.of(markdownContent));
+    }
+
+    /**
+     * 包装字符流：读取的同时统计复杂度，读完后调用 complexity.finish() 再分级
+     *
+     * @param reader 原始字符流
+     * @param complexity 统计结果
+     * @return 包装后的字符流
+     */
+    public Reader track(Reader reader, MarkdownComplexity complexity) {
+        return new TrackingReader(reader, complexity);
+    }
+
+    /**
+     * 按阈值分级，先检查拒绝阈值
+     *
+     * @param complexity 扫描完成的统计结果
+     * @return 同一对象
+     */
+    public MarkdownComplexity classify(MarkdownComplexity complexity) {
+        String reason = exceeded(complexity, rejectLines, rejectLineLength, rejectNestingDepth, rejectTableCells, rejectImages);
+        if (reason != null) {
+            complexity.classify(MarkdownComplexity.Level.REJECTED, reason);
+        } else {
+            reason = exceeded(complexity, expensiveLines, expensiveLineLength, expensiveNestingDepth, expensiveTableCells, expensiveImages);
+            complexity.classify(reason != null ? MarkdownComplexity.Level.EXPENSIVE : MarkdownComplexity.Level.CHEAP, reason);
+        }
+        metrics.increment("complexity." + complexity.getLevel().name().toLowerCase());
+        if (complexity.getLevel() != MarkdownComplexity.Level.CHEAP) {
+            logger.info("Markdown复杂度: {}，原因: {}", complexity, complexity.getReason());
+        }
+        return complexity;
+    }
+
+    /**
+     * 被拒绝时抛出422，否则原样返回
+     *
+     * @param complexity 分级后的统计结果
+     * @return 同一对象
+     * @throws BusinessException 等级为REJECTED时抛出
+     */
+    public MarkdownComplexity requireAccepted(MarkdownComplexity complexity) {
+        if (complexity.getLevel() == MarkdownComplexity.Level.REJECTED) {
+            throw new BusinessException(422, "文档过于复杂，无法转换：" + complexity.getReason());
+        }
+        return complexity;
+    }
+
+    /**
+     * 读取过程中检查拒绝阈值：各项统计只增不减，已超限的文档不必读完即可拒绝
+     *
+     * @param complexity 扫描中的统计结果
+     * @throws BusinessException 超过拒绝阈值时抛出
+     */
+    public void checkRejectLimits(MarkdownComplexity complexity) {
+        String reason = exceeded(complexity, rejectLines, rejectLineLength, rejectNestingDepth, rejectTableCells, rejectImages);
+        if (reason != null) {
+            complexity.classify(MarkdownComplexity.Level.REJECTED, reason);
+            metrics.increment("complexity.rejected");
+            logger.info("Markdown复杂度: {}，原因: {}", complexity, reason);
+            requireAccepted(complexity);
+        }
+    }
+
+    private static String exceeded(MarkdownComplexity complexity, long lines, long lineLength,
+                                   int nestingDepth, long tableCells, long images) {
+        if (complexity.getMaxNestingDepth() > nestingDepth) {
+            return "嵌套层级 " + complexity.getMaxNestingDepth() + " 超过 " + nestingDepth;
+        }
+        if (complexity.getTableCells() > tableCells) {
+            return "表格单元格数 " + complexity.getTableCells() + " 超过 " + tableCells;
+        }
+        if (complexity.getLines() > lines) {
+            return "行数 " + complexity.getLines() + " 超过 " + lines;
+        }
+        if (complexity.getLongestLine() > lineLength) {
+            return "单行长度 " + complexity.getLongestLine() + " 超过 " + lineLength;
+        }
+        if (complexity.getImages() > images) {
+            return "图片数 " + complexity.getImages() + " 超过 " + images;
+        }
+        return null;
+    }
+
+    /**
+     * 读取时统计复杂度的字符流
+     */
+    private static class TrackingReader extends FilterReader {
+
+        private final MarkdownComplexity complexity;
+
+        TrackingReader(Reader in, MarkdownComplexity complexity) {
+            super(in);
+            this.complexity = complexity;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c >= 0) {
+                complexity.accept((char) c);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                complexity.accept(buffer, offset, n);
+            }
+            return n;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
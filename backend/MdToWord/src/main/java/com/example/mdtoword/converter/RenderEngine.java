@@ -0,0 +1,50 @@
+package com.example.mdtoword.converter;
+
+import com.example.mdtoword.exception.BusinessException;
+
+/**
+ * Markdown转Word的渲染引擎
+ *
+ * POI_TL：poi-tl Markdown插件，经过模板引擎渲染（默认）
+ * NATIVE：CommonMark语法树直接写入XWPFDocument，不经过模板引擎
+ *
+ * 两种引擎输出不同，转换结果缓存和ETag按引擎区分
+ */
+public enum RenderEngine {
+
+    POI_TL("poi-tl"),
+    NATIVE("native");
+
+    private final String id;
+
+    RenderEngine(String id) {
+        this.id = id;
+    }
+
+    /**
+     * 请求参数与配置中使用的名称
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * 按名称解析渲染引擎
+     *
+     * @param id 名称，为空时返回默认引擎
+     * @param defaultEngine 默认引擎
+     * @return 渲染引擎
+     * @throws BusinessException 名称无法识别时抛出
+     */
+    public static RenderEngine fromId(String id, RenderEngine defaultEngine) {
+        if (id == null || id.isBlank()) {
+            return defaultEngine;
+        }
+        for (RenderEngine engine : values()) {
+            if (engine.id.equalsIgnoreCase(id.trim())) {
+                return engine;
+            }
+        }
+        throw new BusinessException("不支持的渲染引擎: " + id + "，可选值: poi-tl、native");
+    }
+}
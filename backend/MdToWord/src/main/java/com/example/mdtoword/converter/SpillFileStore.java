@@ -0,0 +1,140 @@
+package com.example.mdtoword.converter;
+
+import com.example.mdtoword.util.FileTransferUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 转换结果落盘文件管理
+ *
+ * 设计说明：
+ * 1. 超大文档的转换结果写入临时文件，不在堆上保留完整的字节数组
+ * 2. 响应时用 FileChannel.transferTo 从文件通道直接写入响应流，写完或客户端中断后立即删除
+ * 3. 启动时清空落盘目录；定时清理超过最长保留时间的遗留文件（如异步请求超时，响应体从未执行）
+ */
+@Component
+public class SpillFileStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpillFileStore.class);
+
+    private static final String FILE_PREFIX = "convert-";
+    private static final String FILE_SUFFIX = ".docx";
+
+    @Value("${converter.spill.dir:${java.io.tmpdir}/mdtoword-spill}")
+    private String spillDir;
+
+    // 遗留文件的最长保留时间（秒）
+    @Value("${converter.spill.max-age-seconds:600}")
+    private long maxAgeSeconds;
+
+    private final ConverterMetrics metrics;
+
+    private final AtomicInteger liveFiles = new AtomicInteger();
+
+    private Path directory;
+
+    public SpillFileStore(ConverterMetrics metrics) {
+        this.metrics = metrics;
+        metrics.registerGauge("spill.files", liveFiles::get);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        directory = Paths.get(spillDir).toAbsolutePath();
+        Files.createDirectories(directory);
+        // 上次运行遗留的文件全部删除
+        int removed = deleteOlderThan(Instant.MAX);
+        logger.info("转换结果落盘目录: {}，清理遗留文件 {} 个", directory, removed);
+    }
+
+    /**
+     * 创建一个空的临时文件
+     *
+     * @return 文件路径，使用完毕后必须通过 transferTo 或 delete 删除
+     */
+    public Path createTempFile() throws IOException {
+        Path file = Files.createTempFile(directory, FILE_PREFIX, FILE_SUFFIX);
+        liveFiles.incrementAndGet();
+        metrics.increment("spill.created");
+        return file;
+    }
+
+    /**
+     * 将文件内容写入输出流，完成或失败后删除文件
+     *
+     * @param file 由 createTempFile 创建的文件
+     * @param outputStream 目标输出流（通常为HTTP响应流）
+     */
+    public void transferTo(Path file, OutputStream outputStream) throws IOException {
+        try {
+            long size = FileTransferUtil.transfer(file, 0, Long.MAX_VALUE, outputStream);
+            metrics.add("spill.bytes-served", size);
+        } finally {
+            delete(file);
+        }
+    }
+
+    /**
+     * 删除临时文件，文件不存在时忽略
+     *
+     * @param file 文件路径
+     */
+    public void delete(Path file) {
+        try {
+            if (Files.deleteIfExists(file)) {
+                liveFiles.decrementAndGet();
+                metrics.increment("spill.deleted");
+            }
+        } catch (IOException e) {
+            logger.warn("删除落盘文件失败: {}，原因: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * 定时清理超过最长保留时间的遗留文件
+     *
+     * 执行频率：每分钟执行一次
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void cleanOrphans() {
+        int removed = deleteOlderThan(Instant.now().minusSeconds(maxAgeSeconds));
+        if (removed > 0) {
+            liveFiles.addAndGet(-removed);
+            metrics.add("spill.orphans-deleted", removed);
+            logger.warn("清理遗留的落盘文件 {} 个", removed);
+        }
+    }
+
+    private int deleteOlderThan(Instant deadline) {
+        int removed = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    FileTime modified = Files.getLastModifiedTime(file);
+                    if (modified.toInstant().isBefore(deadline) && Files.deleteIfExists(file)) {
+                        removed++;
+                    }
+                } catch (IOException e) {
+                    logger.debug("检查落盘文件失败: {}，原因: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("扫描落盘目录失败: {}", e.getMessage());
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,357 @@
+package com.example.mdtoword.converter;
+
+import com.example.mdtoword.exception.BusinessException;
+import com.example.mdtoword.util.MarkdownToWordUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Word模板注册表（按团队/用途上传的模板）
+ *
+ * 设计说明：
+ * 1. 模板文件保存在 {dir}/{模板ID}/v{版本}.docx，每次上传版本号加一，只保留最新版本
+ * 2. 上传时校验一次（poi-tl编译 + 检查 {{md}} 标签），之后按ID从内存取用，不再读盘和校验
+ * 3. 已加载的模板放在按访问顺序淘汰的有界Map中（converter.template.max-cached），
+ *    被淘汰的模板在下次使用时从磁盘重新读取
+ * 4. 模板内容摘要参与转换结果的内容键，上传新版本后旧的缓存结果和ETag不再命中
+ * 5. 内置模板（ID为 default）始终常驻，不能被覆盖
+ * 6. 首次上传者成为模板所有者（记录在 {dir}/{模板ID}/owner），其他用户上传同一ID返回403，
+ *    避免覆盖别人正在使用的模板；升级前上传、没有所有者记录的模板由之后第一个上传者认领
+ *
+ * poi-tl 渲染时会修改编译后的文档对象，编译结果无法跨请求复用，每次转换仍从内存中的模板字节编译
+ */
+@Component
+public class TemplateRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemplateRegistry.class);
+
+    private static final Pattern ID_PATTERN = Pattern.compile("[a-z0-9][a-z0-9_-]{0,31}");
+    private static final Pattern VERSION_FILE_PATTERN = Pattern.compile("v(\\d+)\\.docx");
+    private static final String OWNER_FILE = "owner";
+
+    @Value("${converter.template.dir:./data/templates}")
+    private String templateDir;
+
+    // 内存中最多保留的已加载模板数
+    @Value("${converter.template.max-cached:16}")
+    private int maxCached;
+
+    // 单个模板文件的最大字节数
+    @Value("${converter.template.max-bytes:10485760}")
+    private long maxBytes;
+
+    private final MarkdownToWordUtil markdownToWordUtil;
+    private final ConverterMetrics metrics;
+
+    // 模板ID -> 磁盘上的最新版本号，启动时扫描目录得到
+    private final Map<String, Integer> latestVersions = new ConcurrentHashMap<>();
+
+    // 模板ID -> 所有者（上传者用户名）
+    private final Map<String, String> owners = new ConcurrentHashMap<>();
+
+    // 已加载的模板，按访问顺序淘汰
+    private final LinkedHashMap<String, WordTemplate> loaded = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, WordTemplate> eldest) {
+            if (size() > Math.max(1, maxCached)) {
+                metrics.increment("template.cache.eviction");
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private Path directory;
+
+    public TemplateRegistry(MarkdownToWordUtil markdownToWordUtil, ConverterMetrics metrics) {
+        this.markdownToWordUtil = markdownToWordUtil;
+        this.metrics = metrics;
+        metrics.registerGauge("template.count", () -> latestVersions.size() + 1);
+        metrics.registerGauge("template.cache.entries", this::loadedCount);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        directory = Paths.get(templateDir).toAbsolutePath().normalize();
+        Files.createDirectories(directory);
+        try (Stream<Path> dirs = Files.list(directory)) {
+            dirs.filter(Files::isDirectory).forEach(dir -> {
+                String id = dir.getFileName().toString();
+                int version = latestVersion(dir);
+                if (isValidId(id) && version > 0) {
+                    latestVersions.put(id, version);
+                    String owner = readOwner(dir);
+                    if (owner != null) {
+                        owners.put(id, owner);
+                    }
+                }
+            });
+        }
+        logger.info("模板注册表: {}，已上传模板 {} 个", directory, latestVersions.size());
+    }
+
+    /**
+     * 按ID获取模板
+     *
+     * @param id 模板ID，为空或为 default 时返回内置模板
+     * @return 模板
+     * @throws BusinessException 模板不存在时抛出（404）
+     */
+    public WordTemplate resolve(String id) {
+        if (id == null || id.isBlank() || WordTemplate.DEFAULT_ID.equals(id)) {
+            return markdownToWordUtil.getDefaultTemplate();
+        }
+        WordTemplate template;
+        synchronized (loaded) {
+            template = loaded.get(id);
+        }
+        if (template != null) {
+            metrics.increment("template.cache.hit");
+            return template;
+        }
+        Integer version = isValidId(id) ? latestVersions.get(id) : null;
+        if (version == null) {
+            throw new BusinessException(404, "模板不存在: " + id);
+        }
+        metrics.increment("template.cache.miss");
+        template = load(id, version);
+        if (template == null && !version.equals(latestVersions.get(id))) {
+            // 读取期间有新版本上传，旧版本文件已被删除
+            template = load(id, latestVersions.get(id));
+        }
+        if (template == null) {
+            throw new BusinessException(404, "模板不存在: " + id);
+        }
+        synchronized (loaded) {
+            // 并发加载或期间有新上传时，保留版本较新的一个
+            WordTemplate current = loaded.get(id);
+            if (current != null && current.getVersion() >= template.getVersion()) {
+                return current;
+            }
+            loaded.put(id, template);
+        }
+        return template;
+    }
+
+    /**
+     * 上传模板，已存在时版本号加一
+     *
+     * @param id 模板ID（小写字母、数字、-、_，最长32位）
+     * @param bytes 模板文件字节（.docx，包含 {{md}} 标签）
+     * @param owner 上传者用户名
+     * @return 新版本的模板
+     * @throws BusinessException ID非法、文件过大或模板无效时抛出；未登录时抛出401，ID属于其他用户时抛出403
+     */
+    public WordTemplate upload(String id, byte[] bytes, String owner) {
+        if (owner == null || owner.isBlank()) {
+            throw new BusinessException(401, "用户未登录");
+        }
+        if (!isValidId(id) || WordTemplate.DEFAULT_ID.equals(id)) {
+            throw new BusinessException("模板ID只能包含小写字母、数字、-、_，最长32位，且不能为 default");
+        }
+        if (bytes == null || bytes.length == 0) {
+            throw new BusinessException("模板文件不能为空");
+        }
+        if (bytes.length > maxBytes) {
+            throw new BusinessException(413, "模板文件超过上限 " + maxBytes + " 字节");
+        }
+        try {
+            markdownToWordUtil.validateTemplate(bytes);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(e.getMessage());
+        }
+
+        // 同一ID的上传串行执行，保证版本号连续
+        synchronized (latestVersions) {
+            String currentOwner = owners.get(id);
+            if (currentOwner != null && !currentOwner.equals(owner)) {
+                metrics.increment("template.upload.forbidden");
+                throw new BusinessException(403, "模板ID已被其他用户使用: " + id);
+            }
+            int version = latestVersions.getOrDefault(id, 0) + 1;
+            Path dir = directory.resolve(id);
+            Path file = dir.resolve("v" + version + ".docx");
+            try {
+                Files.createDirectories(dir);
+                if (currentOwner == null) {
+                    if (version > 1) {
+                        logger.warn("模板 {} 没有所有者记录，由 {} 认领", id, owner);
+                    }
+                    writeOwner(dir, owner);
+                    owners.put(id, owner);
+                }
+                Path temp = Files.createTempFile(dir, "upload", ".tmp");
+                try {
+                    Files.write(temp, bytes);
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException e) {
+                logger.error("保存模板失败: {}，原因: {}", file, e.getMessage(), e);
+                throw new RuntimeException("保存模板失败: " + e.getMessage(), e);
+            }
+
+            WordTemplate template = new WordTemplate(id, version, bytes, System.currentTimeMillis());
+            latestVersions.put(id, version);
+            synchronized (loaded) {
+                loaded.put(id, template);
+            }
+            deleteOldVersions(dir, version);
+            metrics.increment("template.upload");
+            logger.info("模板上传成功: {}", template);
+            return template;
+        }
+    }
+
+    /**
+     * 列出全部模板（内置模板在前），只读取文件属性，不加载模板内容
+     *
+     * @return 模板ID、版本、大小、更新时间、所有者
+     */
+    public List<Map<String, Object>> list() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        WordTemplate builtIn = markdownToWordUtil.getDefaultTemplate();
+        result.add(describe(builtIn.getId(), builtIn.getVersion(), builtIn.getBytes().length, builtIn.getUpdateTime(), null));
+        latestVersions.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    Path file = versionFile(entry.getKey(), entry.getValue());
+                    try {
+                        result.add(describe(entry.getKey(), entry.getValue(), Files.size(file),
+                                Files.getLastModifiedTime(file).toMillis(), owners.get(entry.getKey())));
+                    } catch (IOException e) {
+                        logger.warn("读取模板文件属性失败: {}", file);
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * 从磁盘读取模板，文件不存在或读取失败时返回null
+     */
+    private WordTemplate load(String id, int version) {
+        Path file = versionFile(id, version);
+        try {
+            return new WordTemplate(id, version, Files.readAllBytes(file), Files.getLastModifiedTime(file).toMillis());
+        } catch (IOException e) {
+            logger.warn("读取模板失败: {}，原因: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private Path versionFile(String id, int version) {
+        return directory.resolve(id).resolve("v" + version + ".docx");
+    }
+
+    private int loadedCount() {
+        synchronized (loaded) {
+            return loaded.size();
+        }
+    }
+
+    private static Map<String, Object> describe(String id, int version, long size, long updateTime, String owner) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("id", id);
+        info.put("version", version);
+        info.put("size", size);
+        info.put("updateTime", updateTime);
+        info.put("owner", owner);
+        return info;
+    }
+
+    /**
+     * 读取模板所有者，没有记录时返回null
+     */
+    private static String readOwner(Path dir) {
+        Path file = dir.resolve(OWNER_FILE);
+        try {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            String owner = Files.readString(file, StandardCharsets.UTF_8).trim();
+            return owner.isEmpty() ? null : owner;
+        } catch (IOException e) {
+            logger.warn("读取模板所有者失败: {}", file);
+            return null;
+        }
+    }
+
+    /**
+     * 写入模板所有者（先写临时文件再重命名）
+     */
+    private static void writeOwner(Path dir, String owner) throws IOException {
+        Path temp = Files.createTempFile(dir, "owner", ".tmp");
+        try {
+            Files.writeString(temp, owner, StandardCharsets.UTF_8);
+            Files.move(temp, dir.resolve(OWNER_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 目录中最大的版本号，没有版本文件时返回0；同时清理上传中断留下的临时文件
+     */
+    private static int latestVersion(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.mapToInt(file -> {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    deleteQuietly(file);
+                    return 0;
+                }
+                Matcher matcher = VERSION_FILE_PATTERN.matcher(name);
+                return matcher.matches() ? Integer.parseInt(matcher.group(1)) : 0;
+            }).max().orElse(0);
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("扫描模板目录失败: {}", dir);
+            return 0;
+        }
+    }
+
+    /**
+     * 删除旧版本文件
+     */
+    private static void deleteOldVersions(Path dir, int currentVersion) {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(file -> {
+                        Matcher matcher = VERSION_FILE_PATTERN.matcher(file.getFileName().toString());
+                        return matcher.matches() && Integer.parseInt(matcher.group(1)) < currentVersion;
+                    })
+                    .forEach(TemplateRegistry::deleteQuietly);
+        } catch (IOException e) {
+            logger.debug("清理旧版本模板失败: {}", dir);
+        }
+    }
+
+    private static boolean isValidId(String id) {
+        return id != null && ID_PATTERN.matcher(id).matches();
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("删除文件失败: {}", file);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.mdtoword.converter;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 已校验的Word模板（不可变）
+ *
+ * 设计说明：
+ * 1. 模板字节在上传或首次加载时校验一次（能被poi-tl编译且包含 {{md}} 标签），之后所有请求共享
+ * 2. 摘要为模板内容SHA-256的前16位，参与转换结果的内容键：模板内容变化后旧的缓存结果和ETag自然失效
+ * 3. 版本号由 TemplateRegistry 在每次上传时递增，用于展示和管理，不参与缓存键
+ *
+ * bytes 为共享只读数组，调用方不得修改
+ */
+public final class WordTemplate {
+
+    /**
+     * 内置模板的ID
+     */
+    public static final String DEFAULT_ID = "default";
+
+    private final String id;
+    private final int version;
+    private final byte[] bytes;
+    private final String digest;
+    private final long updateTime;
+
+    public WordTemplate(String id, int version, byte[] bytes, long updateTime) {
+        this.id = id;
+        this.version = version;
+        this.bytes = bytes;
+        this.digest = digest(bytes);
+        this.updateTime = updateTime;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public long getUpdateTime() {
+        return updateTime;
+    }
+
+    /**
+     * 是否为内置模板
+     */
+    public boolean isDefault() {
+        return DEFAULT_ID.equals(id);
+    }
+
+    @Override
+    public String toString() {
+        return id + "@v" + version + "(" + digest + ")";
+    }
+
+    /**
+     * 计算模板内容摘要（取SHA-256前16位）
+     */
+    private static String digest(byte[] bytes) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(bytes)).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前JDK不支持SHA-256", e);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.mdtoword.exception;
 import com.example.mdtoword.pojo.Result;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -107,13 +108,29 @@ public class GlobalExceptionHandler {
     }
 
 
+    /**
+     * 处理请求过多异常（如转换队列已满）
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Result<String>> handleTooManyRequestsException(TooManyRequestsException e) {
+        logger.warn("请求过多: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Result.error(e.getCode(), e.getMessage()));
+    }
+
     /**
      * 处理业务异常
      */
     @ExceptionHandler(BusinessException.class)
     public ResponseEntity<Result<String>> handleBusinessException(BusinessException e) {
         logger.warn("业务异常: {}", e.getMessage());
-        return ResponseEntity.badRequest()
+        // 业务码为4xx/5xx时作为HTTP状态码返回（如413），其余情况统一返回400
+        HttpStatus status = e.getCode() != null ? HttpStatus.resolve(e.getCode()) : null;
+        if (status == null || !(status.is4xxClientError() || status.is5xxServerError())) {
+            status = HttpStatus.BAD_REQUEST;
+        }
+        return ResponseEntity.status(status)
                 .body(Result.error(e.getCode(), e.getMessage()));
     }
 
@@ -0,0 +1,19 @@
+package com.example.mdtoword.exception;
+
+/**
+ * 请求过多异常
+ * 用于服务端资源已满（如转换队列已满）的情况，返回429并携带Retry-After提示
+ */
+public class TooManyRequestsException extends BusinessException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(429, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
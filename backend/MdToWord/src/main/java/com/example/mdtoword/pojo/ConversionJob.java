@@ -0,0 +1,62 @@
+package com.example.mdtoword.pojo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 异步转换任务
+ *
+ * 设计说明：
+ * 1. 此类不对应数据库表，仅保存在内存中
+ * 2. 提交时保存Markdown内容，开始渲染后即释放
+ * 3. 完成后保存生成的Word字节，超过保留时间后由定时任务清理
+ * 4. 字段由转换线程写入、请求线程读取，均声明为volatile
+ */
+@Data
+public class ConversionJob {
+
+    /**
+     * 任务状态枚举
+     */
+    public enum Status {
+        PENDING,    // 排队中
+        RUNNING,    // 转换中
+        DONE,       // 已完成
+        FAILED      // 失败
+    }
+
+    private String id;                              // 任务ID
+    @JsonIgnore
+    private String owner;                           // 提交者用户名
+    private volatile Status status;                 // 任务状态
+    private int inputLength;                        // 输入长度（字符数）
+    private volatile Integer resultSize;            // 结果大小（字节）
+    private volatile String errorMessage;           // 失败原因
+    private LocalDateTime createTime;               // 提交时间
+    private volatile LocalDateTime finishTime;      // 完成时间
+    @JsonIgnore
+    private volatile String markdownContent;        // 待转换内容
+    @JsonIgnore
+    private volatile byte[] result;                 // 转换结果
+
+    public ConversionJob() {}
+
+    public ConversionJob(String id, String owner, String markdownContent) {
+        this.id = id;
+        this.owner = owner;
+        this.markdownContent = markdownContent;
+        this.inputLength = markdownContent.length();
+        this.status = Status.PENDING;
+        this.createTime = LocalDateTime.now();
+    }
+
+    /**
+     * 是否已结束（成功或失败）
+     */
+    @JsonIgnore
+    public boolean isFinished() {
+        return status == Status.DONE || status == Status.FAILED;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.mdtoword.pojo;
+
+import lombok.Data;
+
+/**
+ * Markdown文档
+ * 批量转换接口的JSON请求元素
+ */
+@Data
+public class MarkdownDocument {
+
+    private String name;     // 文档名称，用作ZIP中的文件名
+    private String content;  // Markdown内容
+}
@@ -122,4 +122,18 @@ public interface BlogService {
      * @return 是否为作者，如果博客不存在返回false
      */
     boolean isAuthor(Integer blogId, Integer authorId);
-} 
\ No newline at end of file
+    
+    /**
+     * 导出博客为Word文档
+     * 
+     * 功能说明：
+     * - 权限验证与 getById 一致：未登录只能导出已发布，已登录可以导出自己的所有文章+别人的已发布文章
+     * - 使用文章的Markdown内容（content字段）转换，固定使用原生引擎以嵌入本地上传的图片
+     * - 复用转换服务按内容寻址的结果缓存，文章未修改时重复导出不再转换
+     * 
+     * @param id 博客ID
+     * @param currentUserId 当前登录用户ID，null表示未登录用户
+     * @return Word文档字节数组，如果不存在或无权限访问返回null
+     */
+    byte[] exportDocx(Integer id, Integer currentUserId);
+}
@@ -0,0 +1,41 @@
+package com.example.mdtoword.service;
+
+import com.example.mdtoword.pojo.ConversionJob;
+
+/**
+ * 异步转换任务服务接口
+ *
+ * 功能设计：
+ * 1. 提交转换任务，由固定大小的线程池和有界队列执行
+ * 2. 队列已满时拒绝提交，提示客户端稍后重试
+ * 3. 查询任务状态和结果
+ * 4. 清理超过保留时间的已完成任务
+ */
+public interface ConversionJobService {
+
+    /**
+     * 提交转换任务
+     *
+     * @param markdownContent Markdown文本内容
+     * @param owner 提交者用户名
+     * @return 新建的任务
+     * @throws com.example.mdtoword.exception.TooManyRequestsException 队列已满时抛出
+     */
+    ConversionJob submit(String markdownContent, String owner);
+
+    /**
+     * 查询任务
+     *
+     * @param jobId 任务ID
+     * @param owner 当前用户名，只能查询自己提交的任务
+     * @return 任务，不存在、已过期或不属于当前用户时返回null
+     */
+    ConversionJob getJob(String jobId, String owner);
+
+    /**
+     * 清理超过保留时间的已完成任务
+     *
+     * @return 清理的任务数量
+     */
+    int cleanExpiredJobs();
+}
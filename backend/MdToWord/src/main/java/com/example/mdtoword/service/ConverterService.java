@@ -1,7 +1,14 @@
 package com.example.mdtoword.service;
 
-import org.springframework.stereotype.Service;
+import com.example.mdtoword.converter.ConversionSource;
+import com.example.mdtoword.converter.RenderEngine;
+import com.example.mdtoword.converter.WordTemplate;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 
 public interface ConverterService {
     /**
@@ -11,4 +18,150 @@ public interface ConverterService {
      * @throws Exception 转换过程中可能抛出的异常
      */
     byte[] convertMarkdownToWord(String markdownContent);
+
+    /**
+     * 使用已计算好的内容键转换，避免重复计算哈希
+     * @param markdownContent Markdown文本内容
+     * @param contentKey 由 {@link #computeContentKey(String)} 得到的内容键
+     * @return Word文件的字节数组
+     */
+    byte[] convertMarkdownToWord(String markdownContent, String contentKey);
+
+    /**
+     * 使用指定渲染引擎、模板和已计算好的内容键转换
+     * @param markdownContent Markdown文本内容
+     * @param contentKey 由 {@link #computeContentKey(String, RenderEngine, WordTemplate)} 得到的内容键
+     * @param engine 渲染引擎
+     * @param template Word模板
+     * @return Word文件的字节数组
+     */
+    byte[] convertMarkdownToWord(String markdownContent, String contentKey, RenderEngine engine, WordTemplate template);
+
+    /**
+     * 解析请求指定的渲染引擎
+     * @param id 引擎名称（poi-tl、native），为空时使用配置的默认引擎
+     * @return 渲染引擎
+     */
+    RenderEngine resolveRenderEngine(String id);
+
+    /**
+     * 解析请求指定的Word模板
+     * @param id 模板ID，为空时使用内置模板
+     * @return 模板，不存在时抛出404
+     */
+    WordTemplate resolveTemplate(String id);
+
+    /**
+     * 计算内容键：Markdown内容与模板/样式版本的SHA-256摘要
+     * 相同输入在同一模板版本下得到相同的键，可用作缓存键和ETag
+     * @param markdownContent Markdown文本内容
+     * @return 十六进制摘要
+     */
+    String computeContentKey(String markdownContent);
+
+    /**
+     * 计算指定渲染引擎和模板下的内容键，不同引擎、不同模板内容的结果不共用缓存和ETag
+     * @param markdownContent Markdown文本内容
+     * @param engine 渲染引擎
+     * @param template Word模板
+     * @return 十六进制摘要
+     */
+    String computeContentKey(String markdownContent, RenderEngine engine, WordTemplate template);
+
+    /**
+     * 将Markdown内容转换为Word文件并直接写入输出流
+     * @param markdownContent Markdown文本内容
+     * @param outputStream 目标输出流（通常为HTTP响应流）
+     */
+    void convertMarkdownToWord(String markdownContent, OutputStream outputStream);
+
+    /**
+     * 使用指定渲染引擎和模板转换并直接写入输出流
+     * @param markdownContent Markdown文本内容
+     * @param engine 渲染引擎
+     * @param template Word模板
+     * @param outputStream 目标输出流（通常为HTTP响应流）
+     */
+    void convertMarkdownToWord(String markdownContent, RenderEngine engine, WordTemplate template, OutputStream outputStream);
+
+    /**
+     * 从输入流读取Markdown并转换，结果直接写入输出流
+     * native 引擎按行增量解析，不在堆上构建完整的Markdown字符串；poi-tl 引擎需要先读成字符串
+     * 解析前按输入字节数申请准入，读取过程中检查复杂度并按实际统计调整
+     * @param markdownStream Markdown输入流（UTF-8，已解压），由调用方关闭
+     * @param expectedBytes 输入字节数（Content-Length），未知时为-1
+     * @param engine 渲染引擎
+     * @param template Word模板
+     * @param outputStream 目标输出流（通常为HTTP响应流）
+     */
+    void convertMarkdownToWord(InputStream markdownStream, long expectedBytes, RenderEngine engine, WordTemplate template, OutputStream outputStream);
+
+    /**
+     * 将Word文档（.docx）转换为Markdown并写入输出流
+     * 边解析边输出，内存占用与文档大小无关；受转换截止时间和准入控制约束
+     * @param docxFile .docx文件（上传内容已落盘），由调用方删除
+     * @param outputStream 目标输出流（UTF-8 Markdown，通常为HTTP响应流），由调用方关闭
+     */
+    void convertWordToMarkdown(Path docxFile, OutputStream outputStream);
+
+    /**
+     * 查找磁盘缓存中的转换结果
+     * @param contentKey 内容键
+     * @return 缓存文件路径（只读，不得删除），未命中返回null
+     */
+    Path findCachedFile(String contentKey);
+
+    /**
+     * 判断转换结果是否应写入临时文件（预估输出超过落盘阈值）
+     * @param markdownContent Markdown文本内容
+     * @return 是否落盘
+     */
+    boolean shouldSpillToDisk(String markdownContent);
+
+    /**
+     * 将Markdown内容转换为Word并写入临时文件，不经过结果缓存
+     * @param markdownContent Markdown文本内容
+     * @return 临时文件路径，调用方通过 SpillFileStore 发送并删除
+     */
+    Path convertMarkdownToWordFile(String markdownContent);
+
+    /**
+     * 使用指定渲染引擎和模板转换并写入临时文件
+     * @param markdownContent Markdown文本内容
+     * @param engine 渲染引擎
+     * @param template Word模板
+     * @return 临时文件路径，调用方通过 SpillFileStore 发送并删除
+     */
+    Path convertMarkdownToWordFile(String markdownContent, RenderEngine engine, WordTemplate template);
+
+    /**
+     * 上传Word模板，同一ID再次上传时版本号加一，使用该模板的缓存结果随之失效
+     * @param id 模板ID
+     * @param bytes 模板文件字节（.docx，需包含 {{md}} 标签）
+     * @param owner 上传者用户名，首次上传者成为该ID的所有者
+     * @return 新版本的模板
+     */
+    WordTemplate uploadTemplate(String id, byte[] bytes, String owner);
+
+    /**
+     * 列出可用的Word模板
+     * @return 模板ID、版本、大小、更新时间、所有者
+     */
+    List<Map<String, Object>> listTemplates();
+
+    /**
+     * 将Markdown内容渲染为HTML，用于编辑时的实时预览
+     * 结果按内容哈希缓存，相同内容重复预览时直接返回
+     * @param markdownContent Markdown文本内容
+     * @return UTF-8编码的HTML片段
+     */
+    byte[] convertMarkdownToHtml(String markdownContent);
+
+    /**
+     * 批量转换Markdown文档，结果按完成顺序写入ZIP输出流
+     * 同一时刻只保留有限数量的转换结果，内存占用与批量大小无关
+     * @param sources 待转换文档
+     * @param outputStream 目标输出流（通常为HTTP响应流）
+     */
+    void convertBatchToZip(List<ConversionSource> sources, OutputStream outputStream);
 }
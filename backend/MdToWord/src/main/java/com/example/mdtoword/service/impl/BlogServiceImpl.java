@@ -3,12 +3,16 @@ package com.example.mdtoword.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.example.mdtoword.converter.RenderEngine;
+import com.example.mdtoword.converter.WordTemplate;
 import com.example.mdtoword.exception.BusinessException;
 import com.example.mdtoword.mapper.BlogMapper;
 import com.example.mdtoword.mapper.CategoryMapper;
 import com.example.mdtoword.pojo.Blog;
 import com.example.mdtoword.pojo.Category;
 import com.example.mdtoword.service.BlogService;
+import com.example.mdtoword.service.ConverterService;
+import com.example.mdtoword.util.MarkdownToWordUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,6 +34,12 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements Bl
     @Autowired
     private CategoryMapper categoryMapper;
     
+    @Autowired
+    private ConverterService converterService;
+    
+    @Autowired
+    private MarkdownToWordUtil markdownToWordUtil;
+    
     /**
      * 分页查询博客列表（支持多条件筛选和权限过滤）
      * 
@@ -289,6 +299,35 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements Bl
         return blog != null && authorId.equals(blog.getAuthorId());
     }
     
+    /**
+     * 导出博客为Word文档
+     * 
+     * 实现逻辑：
+     * 1. 通过 getById 查询博客并进行权限验证
+     * 2. 按 Markdown内容 + 默认模板版本 + 原生引擎版本 计算内容键
+     * 3. 交给转换服务：命中按内容寻址的结果缓存（内存 + 磁盘）时直接返回，未命中时转换并写入缓存
+     * 
+     * @param id 博客ID
+     * @param currentUserId 当前登录用户ID，null表示未登录用户
+     * @return Word文档字节数组，如果不存在或无权限访问返回null
+     */
+    @Override
+    public byte[] exportDocx(Integer id, Integer currentUserId) {
+        Blog blog = getById(id, currentUserId);
+        if (blog == null) {
+            return null;
+        }
+        if (!StringUtils.hasText(blog.getContent())) {
+            throw new BusinessException("该博客没有Markdown内容，无法导出");
+        }
+        
+        // 结果缓存按内容和引擎版本寻址（内存 + 磁盘），文章未修改时直接命中，修改后自然失效
+        // 文章中的图片多为编辑器上传的 /api/file/rte/...，只有原生引擎能从本地目录解析并嵌入
+        WordTemplate template = markdownToWordUtil.getDefaultTemplate();
+        String contentKey = converterService.computeContentKey(blog.getContent(), RenderEngine.NATIVE, template);
+        return converterService.convertMarkdownToWord(blog.getContent(), contentKey, RenderEngine.NATIVE, template);
+    }
+    
     /**
      * 验证博客数据
      * 
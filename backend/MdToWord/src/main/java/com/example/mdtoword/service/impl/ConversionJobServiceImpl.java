@@ -0,0 +1,189 @@
+package com.example.mdtoword.service.impl;
+
+import com.example.mdtoword.converter.ConverterMetrics;
+import com.example.mdtoword.exception.TooManyRequestsException;
+import com.example.mdtoword.pojo.ConversionJob;
+import com.example.mdtoword.service.ConversionJobService;
+import com.example.mdtoword.service.ConverterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异步转换任务服务实现类
+ *
+ * 实现说明：
+ * 1. 任务保存在内存Map中，提交后立即返回任务ID
+ * 2. 转换在 converterJobExecutor（固定线程数 + 有界队列）中执行，不占用Tomcat线程
+ * 3. 队列已满时返回429，Retry-After 按平均转换耗时和排队长度估算
+ * 4. 已完成任务保留 converter.job.result-ttl 秒后清理
+ * 5. 保留的结果字节总数不超过 converter.job.max-retained-mb，超出时提前淘汰最早完成的结果
+ *    （至少保留刚完成的一个），避免大结果在准入预算之外堆积在堆上
+ */
+@Service
+public class ConversionJobServiceImpl implements ConversionJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversionJobServiceImpl.class);
+
+    private final Map<String, ConversionJob> jobs = new ConcurrentHashMap<>();
+
+    private final ConverterService converterService;
+    private final ThreadPoolTaskExecutor jobExecutor;
+    private final ConverterMetrics metrics;
+
+    @Value("${converter.job.result-ttl:600}")
+    private long resultTtlSeconds;
+
+    // 已完成任务保留结果的总字节数上限（MB）
+    @Value("${converter.job.max-retained-mb:256}")
+    private long maxRetainedMb;
+
+    // 当前保留的结果字节总数
+    private final AtomicLong retainedBytes = new AtomicLong();
+
+    // 最近转换耗时的指数滑动平均（毫秒），用于估算Retry-After
+    private volatile double averageDurationMillis = 1000;
+
+    public ConversionJobServiceImpl(ConverterService converterService,
+                                    @Qualifier("converterJobExecutor") ThreadPoolTaskExecutor jobExecutor,
+                                    ConverterMetrics metrics) {
+        this.converterService = converterService;
+        this.jobExecutor = jobExecutor;
+        this.metrics = metrics;
+        metrics.registerGauge("job.queued", () -> jobExecutor.getThreadPoolExecutor().getQueue().size());
+        metrics.registerGauge("job.active", jobExecutor::getActiveCount);
+        metrics.registerGauge("job.retained", jobs::size);
+        metrics.registerGauge("job.retained-bytes", retainedBytes::get);
+    }
+
+    @Override
+    public ConversionJob submit(String markdownContent, String owner) {
+        ConversionJob job = new ConversionJob(UUID.randomUUID().toString(), owner, markdownContent);
+        jobs.put(job.getId(), job);
+        try {
+            jobExecutor.execute(() -> runJob(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            metrics.increment("job.rejected");
+            long retryAfter = estimateRetryAfterSeconds();
+            logger.warn("转换队列已满，拒绝任务，建议 {} 秒后重试", retryAfter);
+            throw new TooManyRequestsException("转换任务过多，请稍后重试", retryAfter);
+        }
+        metrics.increment("job.submitted");
+        logger.info("转换任务已提交，任务ID: {}, 输入长度: {}", job.getId(), job.getInputLength());
+        return job;
+    }
+
+    @Override
+    public ConversionJob getJob(String jobId, String owner) {
+        ConversionJob job = jobs.get(jobId);
+        if (job == null || (job.getOwner() != null && !job.getOwner().equals(owner))) {
+            return null;
+        }
+        return job;
+    }
+
+    @Override
+    public int cleanExpiredJobs() {
+        LocalDateTime deadline = LocalDateTime.now().minusSeconds(resultTtlSeconds);
+        int removed = 0;
+        for (ConversionJob job : jobs.values()) {
+            LocalDateTime finishTime = job.getFinishTime();
+            if (job.isFinished() && finishTime != null && finishTime.isBefore(deadline) && remove(job)) {
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            metrics.add("job.expired", removed);
+            logger.debug("清理过期转换任务 {} 个", removed);
+        }
+        return removed;
+    }
+
+    /**
+     * 在转换线程中执行任务
+     */
+    private void runJob(ConversionJob job) {
+        String markdownContent = job.getMarkdownContent();
+        job.setMarkdownContent(null);
+        job.setStatus(ConversionJob.Status.RUNNING);
+        long start = System.nanoTime();
+        try {
+            byte[] result = converterService.convertMarkdownToWord(markdownContent);
+            job.setResult(result);
+            job.setResultSize(result.length);
+            // 先设置完成时间再发布终态，清理线程看到已完成时完成时间一定存在
+            job.setFinishTime(LocalDateTime.now());
+            retainedBytes.addAndGet(result.length);
+            evictOverBudget();
+            job.setStatus(ConversionJob.Status.DONE);
+            metrics.increment("job.completed");
+        } catch (Exception e) {
+            logger.error("转换任务失败，任务ID: {}", job.getId(), e);
+            job.setErrorMessage(e.getMessage());
+            job.setFinishTime(LocalDateTime.now());
+            job.setStatus(ConversionJob.Status.FAILED);
+            metrics.increment("job.failed");
+        } finally {
+            double durationMillis = (System.nanoTime() - start) / 1_000_000.0;
+            averageDurationMillis = averageDurationMillis * 0.8 + durationMillis * 0.2;
+        }
+    }
+
+    /**
+     * 保留的结果超过字节上限时，从最早完成的任务开始淘汰；在刚完成的任务发布终态前调用，该任务不会被淘汰
+     */
+    private synchronized void evictOverBudget() {
+        long maxBytes = maxRetainedMb * 1024 * 1024;
+        while (retainedBytes.get() > maxBytes) {
+            ConversionJob oldest = null;
+            for (ConversionJob job : jobs.values()) {
+                if (job.getStatus() == ConversionJob.Status.DONE && job.getFinishTime() != null
+                        && (oldest == null || job.getFinishTime().isBefore(oldest.getFinishTime()))) {
+                    oldest = job;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            if (remove(oldest)) {
+                metrics.increment("job.evicted");
+                logger.info("保留的转换结果超过 {} MB，提前清理任务: {}", maxRetainedMb, oldest.getId());
+            }
+        }
+    }
+
+    /**
+     * 移除任务并扣除其结果占用的字节数，任务已被并发移除时返回false
+     */
+    private boolean remove(ConversionJob job) {
+        if (!jobs.remove(job.getId(), job)) {
+            return false;
+        }
+        Integer resultSize = job.getResultSize();
+        if (job.getStatus() == ConversionJob.Status.DONE && resultSize != null) {
+            retainedBytes.addAndGet(-resultSize);
+        }
+        return true;
+    }
+
+    /**
+     * 估算排队任务全部完成所需的秒数
+     */
+    private long estimateRetryAfterSeconds() {
+        int queued = jobExecutor.getThreadPoolExecutor().getQueue().size();
+        int workers = Math.max(1, jobExecutor.getMaxPoolSize());
+        double seconds = (queued + 1) * averageDurationMillis / workers / 1000.0;
+        return Math.max(1, (long) Math.ceil(seconds));
+    }
+}
@@ -1,34 +1,257 @@
 package com.example.mdtoword.service.impl;
 
+import com.example.mdtoword.converter.ConversionAdmissionController;
+import com.example.mdtoword.converter.ConversionResultCache;
+import com.example.mdtoword.converter.ConversionSource;
+import com.example.mdtoword.converter.ConverterMetrics;
+import com.example.mdtoword.converter.DiskConversionCache;
+import com.example.mdtoword.converter.MarkdownComplexity;
+import com.example.mdtoword.converter.MarkdownComplexityAnalyzer;
+import com.example.mdtoword.converter.RenderEngine;
+import com.example.mdtoword.converter.SpillFileStore;
+import com.example.mdtoword.converter.TemplateRegistry;
+import com.example.mdtoword.converter.WordTemplate;
+import com.example.mdtoword.exception.BusinessException;
+import com.example.mdtoword.exception.TooManyRequestsException;
 import com.example.mdtoword.service.ConverterService;
+import com.example.mdtoword.util.LimitedInputStream;
+import com.example.mdtoword.util.MarkdownToHtmlUtil;
 import com.example.mdtoword.util.MarkdownToWordUtil;
+import com.example.mdtoword.util.WordToMarkdownUtil;
+import org.commonmark.node.Node;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 public class ConverterServiceImpl implements ConverterService {
     private static final Logger logger = LoggerFactory.getLogger(ConverterServiceImpl.class);
 
+    // 上传内容长度未知（分块传输、gzip）时按此字节数申请初始准入
+    private static final long UNKNOWN_LENGTH_INITIAL_BYTES = 1024L * 1024;
+    // 读取上传内容时每隔多少字符检查一次复杂度和准入
+    private static final long GUARD_CHECK_INTERVAL_CHARS = 64L * 1024;
+    // 准入不足时每次额外申请的余量
+    private static final long GUARD_GROW_STEP_BYTES = 16L * 1024 * 1024;
+
     private final MarkdownToWordUtil markdownToWordUtil;
 
-    public ConverterServiceImpl(MarkdownToWordUtil markdownToWordUtil) {
+    private final ConversionResultCache resultCache;
+
+    private final ThreadPoolTaskExecutor batchExecutor;
+
+    private final ConverterMetrics metrics;
+
+    private final ConversionAdmissionController admissionController;
+
+    private final ForkJoinPool sectionPool;
+
+    private final SpillFileStore spillFileStore;
+
+    private final ThreadPoolTaskExecutor renderExecutor;
+
+    private final ThreadPoolTaskExecutor expensiveRenderExecutor;
+
+    private final MarkdownComplexityAnalyzer complexityAnalyzer;
+
+    private final DiskConversionCache diskCache;
+
+    private final TemplateRegistry templateRegistry;
+
+    private final MarkdownToHtmlUtil markdownToHtmlUtil;
+
+    private final WordToMarkdownUtil wordToMarkdownUtil;
+
+    private final ConversionResultCache htmlPreviewCache;
+
+    // 进行中的转换（内容键 -> 结果），相同内容的并发请求共享同一次渲染
+    private final Map<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    // 单个批量请求同时进行中的转换数量上限
+    @Value("${converter.batch.parallelism:4}")
+    private int batchParallelism;
+
+    @Value("${converter.parallel.enabled:true}")
+    private boolean parallelEnabled;
+
+    // 达到该字符数的文档按顶级标题分段并行渲染
+    @Value("${converter.parallel.threshold-chars:524288}")
+    private int parallelThresholdChars;
+
+    // 预估输出超过该字节数时写入临时文件
+    @Value("${converter.spill.threshold-bytes:8388608}")
+    private long spillThresholdBytes;
+
+    // 流式上传（解压后）的最大字节数
+    @Value("${converter.upload.max-bytes:104857600}")
+    private long uploadMaxBytes;
+
+    // Word转Markdown时单个XML部件（如document.xml）解压后的最大字节数
+    @Value("${converter.word-import.max-part-bytes:209715200}")
+    private long wordImportMaxPartBytes;
+
+    // 单次转换的截止时间（毫秒），0表示不限制（仍在渲染线程池中执行）
+    @Value("${converter.render.timeout-ms:60000}")
+    private long renderTimeoutMillis;
+
+    // HTML预览的最大字符数，超过时提示改用Word转换
+    @Value("${converter.preview.max-chars:1048576}")
+    private int previewMaxChars;
+
+    // 未指定渲染引擎时使用的默认引擎（poi-tl、native）
+    @Value("${converter.renderer.default:poi-tl}")
+    private String defaultRenderer;
+
+    public ConverterServiceImpl(MarkdownToWordUtil markdownToWordUtil,
+                                @Qualifier("conversionResultCache") ConversionResultCache resultCache,
+                                @Qualifier("converterBatchExecutor") ThreadPoolTaskExecutor batchExecutor,
+                                ConverterMetrics metrics,
+                                ConversionAdmissionController admissionController,
+                                @Qualifier("converterSectionPool") ForkJoinPool sectionPool,
+                                SpillFileStore spillFileStore,
+                                MarkdownToHtmlUtil markdownToHtmlUtil,
+                                @Qualifier("htmlPreviewCache") ConversionResultCache htmlPreviewCache,
+                                @Qualifier("converterRenderExecutor") ThreadPoolTaskExecutor renderExecutor,
+                                @Qualifier("converterExpensiveRenderExecutor") ThreadPoolTaskExecutor expensiveRenderExecutor,
+                                MarkdownComplexityAnalyzer complexityAnalyzer,
+                                DiskConversionCache diskCache,
+                                TemplateRegistry templateRegistry,
+                                WordToMarkdownUtil wordToMarkdownUtil) {
         this.markdownToWordUtil = markdownToWordUtil;
+        this.resultCache = resultCache;
+        this.batchExecutor = batchExecutor;
+        this.metrics = metrics;
+        this.admissionController = admissionController;
+        this.sectionPool = sectionPool;
+        this.spillFileStore = spillFileStore;
+        this.markdownToHtmlUtil = markdownToHtmlUtil;
+        this.htmlPreviewCache = htmlPreviewCache;
+        this.renderExecutor = renderExecutor;
+        this.expensiveRenderExecutor = expensiveRenderExecutor;
+        this.complexityAnalyzer = complexityAnalyzer;
+        this.diskCache = diskCache;
+        this.templateRegistry = templateRegistry;
+        this.wordToMarkdownUtil = wordToMarkdownUtil;
+        metrics.registerGauge("singleflight.in-flight", inFlight::size);
     }
 
     @Override
     public byte[] convertMarkdownToWord(String markdownContent) {
+        return convertMarkdownToWord(markdownContent, computeContentKey(markdownContent));
+    }
+
+    @Override
+    public byte[] convertMarkdownToWord(String markdownContent, String contentKey) {
+        return convertMarkdownToWord(markdownContent, contentKey, defaultEngine(), markdownToWordUtil.getDefaultTemplate());
+    }
+
+    @Override
+    public byte[] convertMarkdownToWord(String markdownContent, String contentKey, RenderEngine engine, WordTemplate template) {
+        byte[] cached = resultCache.get(contentKey);
+        if (cached != null) {
+            logger.debug("转换结果命中缓存，内容键: {}", contentKey);
+            return cached;
+        }
+        // 内存未命中时查磁盘缓存（重启前的转换结果）
+        cached = diskCache.read(contentKey);
+        if (cached != null) {
+            resultCache.put(contentKey, cached);
+            return cached;
+        }
+
+        // 相同内容已有请求在转换时，等待其结果而不是重复渲染
+        CompletableFuture<byte[]> pending = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(contentKey, pending);
+        if (existing != null) {
+            metrics.increment("singleflight.coalesced");
+            logger.debug("合并相同内容的并发转换，内容键: {}", contentKey);
+            return awaitInFlight(existing);
+        }
         try {
-            logger.info("开始转换Markdown内容，长度: {}", markdownContent.length());
+            byte[] wordBytes = render(markdownContent, contentKey, engine, template);
+            pending.complete(wordBytes);
+            return wordBytes;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(contentKey, pending);
+        }
+    }
+
+    /**
+     * 执行一次转换并写入结果缓存
+     */
+    private byte[] render(String markdownContent, String contentKey, RenderEngine engine, WordTemplate template) {
+        // 按估算内存申请准入，预算不足时排队，过载时抛出429
+        // 复杂度扫描：病态文档直接拒绝，昂贵文档进入低优先级线程池
+        MarkdownComplexity complexity = complexityAnalyzer.requireAccepted(complexityAnalyzer.analyze(markdownContent));
+        ConversionAdmissionController.Admission admission =
+                admissionController.acquire(admissionController.estimateCost(complexity));
+        try {
+            logger.info("开始转换Markdown内容，长度: {}，渲染引擎: {}，模板: {}", markdownContent.length(), engine.getId(), template);
 
-            // 直接使用Deepoove POI进行转换
-            byte[] wordBytes = markdownToWordUtil.convertMarkdownToWordBytes(markdownContent);
+            // 默认使用Deepoove POI进行转换，大文档分段并行渲染
+            byte[] wordBytes = runWithDeadline(complexity, admission, () -> {
+                metrics.increment("renderer." + engine.getId() + ".conversions");
+                if (engine == RenderEngine.NATIVE) {
+                    return markdownToWordUtil.convertMarkdownToWordBytesNative(markdownContent, template);
+                }
+                if (useParallel(markdownContent, template)) {
+                    metrics.increment("parallel.conversions");
+                    return markdownToWordUtil.convertMarkdownToWordBytesParallel(markdownContent, template, sectionPool);
+                }
+                return markdownToWordUtil.convertMarkdownToWordBytes(markdownContent, template);
+            });
+            resultCache.put(contentKey, wordBytes);
+            diskCache.put(contentKey, wordBytes);
 
             logger.info("Markdown转换成功，生成字节数组长度: {}", wordBytes.length);
             return wordBytes;
 
+        } catch (BusinessException e) {
+            throw e;
         } catch (IOException e) {
             logger.error("转换过程中发生IO异常: {}", e.getMessage(), e);
             throw new RuntimeException("转换失败: 模板文件读取错误", e);
@@ -37,4 +260,574 @@ public class ConverterServiceImpl implements ConverterService {
             throw new RuntimeException("转换失败: " + e.getMessage(), e);
         }
     }
+
+    @Override
+    public void convertMarkdownToWord(String markdownContent, OutputStream outputStream) {
+        convertMarkdownToWord(markdownContent, defaultEngine(), markdownToWordUtil.getDefaultTemplate(), outputStream);
+    }
+
+    @Override
+    public void convertMarkdownToWord(String markdownContent, RenderEngine engine, WordTemplate template, OutputStream outputStream) {
+        // 复杂度扫描：病态文档直接拒绝，昂贵文档进入低优先级线程池
+        MarkdownComplexity complexity = complexityAnalyzer.requireAccepted(complexityAnalyzer.analyze(markdownContent));
+        ConversionAdmissionController.Admission admission =
+                admissionController.acquire(admissionController.estimateCost(complexity));
+        try {
+            logger.info("开始流式转换Markdown内容，长度: {}，渲染引擎: {}", markdownContent.length(), engine.getId());
+
+            renderThroughSpillFile(complexity, admission, outputStream,
+                    target -> writeDocument(markdownContent, engine, template, target));
+
+            logger.info("Markdown流式转换完成");
+        } catch (BusinessException e) {
+            throw e;
+        } catch (IOException e) {
+            // 流式模式下IO异常多为客户端中断连接
+            logger.warn("流式转换写出失败: {}", e.getMessage());
+            throw new RuntimeException("转换失败: 输出流写入错误", e);
+        } catch (Exception e) {
+            logger.error("转换过程中发生未知异常: {}", e.getMessage(), e);
+            throw new RuntimeException("转换失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void convertMarkdownToWord(InputStream markdownStream, long expectedBytes, RenderEngine engine,
+                                      WordTemplate template, OutputStream outputStream) {
+        // 解析前先按Content-Length（未知时按默认大小）申请准入，读取过程中随实际统计增长
+        ConversionAdmissionController.Admission admission = admissionController.acquire(
+                admissionController.estimateInitialCost(expectedBytes, UNKNOWN_LENGTH_INITIAL_BYTES));
+        boolean handedOff = false;
+        // 限制解压后的字节数，读取时统计输入大小
+        LimitedInputStream input = new LimitedInputStream(markdownStream, uploadMaxBytes);
+        MarkdownComplexity complexity = new MarkdownComplexity();
+        // 解析的同时统计复杂度，不需要额外扫描一遍；超过拒绝阈值或内存预算时中途停止读取
+        Reader reader = new AdmissionGuardReader(complexityAnalyzer.track(
+                new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)), complexity),
+                complexity, admission);
+        try {
+            if (engine != RenderEngine.NATIVE) {
+                // poi-tl Markdown插件只接受字符串，读入后按普通流式转换处理（重新估算并申请准入）
+                String markdownContent = readFully(reader);
+                admission.close();
+                if (markdownContent.trim().isEmpty()) {
+                    throw new BusinessException("Markdown content cannot be null or empty");
+                }
+                convertMarkdownToWord(markdownContent, engine, template, outputStream);
+                return;
+            }
+
+            Node root = markdownToWordUtil.parseMarkdown(reader);
+            if (root.getFirstChild() == null) {
+                throw new BusinessException("Markdown content cannot be null or empty");
+            }
+            long inputBytes = input.getCount();
+            complexityAnalyzer.requireAccepted(complexityAnalyzer.classify(complexity.finish()));
+
+            // 按解析后的实际统计调整准入，归还预估多占的预算
+            admission.resize(admissionController.estimateCost(complexity));
+            logger.info("开始流式转换上传的Markdown，字节数: {}，渲染引擎: {}", inputBytes, engine.getId());
+            handedOff = true;
+            renderThroughSpillFile(complexity, admission, outputStream, target -> {
+                metrics.increment("renderer." + engine.getId() + ".conversions");
+                markdownToWordUtil.writeMarkdownToWordNative(root, inputBytes, template, target);
+            });
+            logger.info("上传的Markdown流式转换完成");
+        } catch (BusinessException e) {
+            throw e;
+        } catch (IOException e) {
+            // 读取上传内容或写出响应失败，多为客户端中断连接
+            logger.warn("上传内容转换失败: {}", e.getMessage());
+            throw new RuntimeException("转换失败: " + e.getMessage(), e);
+        } catch (Exception e) {
+            logger.error("转换过程中发生未知异常: {}", e.getMessage(), e);
+            throw new RuntimeException("转换失败: " + e.getMessage(), e);
+        } finally {
+            // 交给渲染任务后由任务负责归还
+            if (!handedOff) {
+                admission.close();
+            }
+        }
+    }
+
+    @Override
+    public void convertWordToMarkdown(Path docxFile, OutputStream outputStream) {
+        long start = System.nanoTime();
+        try {
+            long inputBytes = Files.size(docxFile);
+            if (inputBytes > uploadMaxBytes) {
+                throw new BusinessException(413, "上传内容超过 " + uploadMaxBytes + " 字节");
+            }
+            // SAX逐段解析只保留当前段落，按固定开销申请准入；按普通文档调度
+            ConversionAdmissionController.Admission admission =
+                    admissionController.acquire(admissionController.estimateStreamingCost());
+            renderThroughSpillFile(new MarkdownComplexity(), admission, outputStream, target -> {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8));
+                WordToMarkdownUtil.Result result = wordToMarkdownUtil.convert(docxFile, writer, wordImportMaxPartBytes);
+                writer.flush();
+                metrics.increment("word-to-markdown.conversions");
+                metrics.add("word-to-markdown.input-bytes", inputBytes);
+                metrics.add("word-to-markdown.skipped-images", result.getSkippedImages());
+                metrics.recordTime("word-to-markdown.time-ms", System.nanoTime() - start);
+                logger.info("Word转Markdown完成，字节数: {}，段落数: {}，表格数: {}，跳过图片: {}",
+                        inputBytes, result.getParagraphs(), result.getTables(), result.getSkippedImages());
+            });
+        } catch (BusinessException e) {
+            metrics.increment("word-to-markdown.rejected");
+            throw e;
+        } catch (IOException e) {
+            // 读取上传内容或写出响应失败，多为客户端中断连接
+            logger.warn("Word转Markdown失败: {}", e.getMessage());
+            throw new RuntimeException("转换失败: " + e.getMessage(), e);
+        } catch (Exception e) {
+            logger.error("转换过程中发生未知异常: {}", e.getMessage(), e);
+            throw new RuntimeException("转换失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Path findCachedFile(String contentKey) {
+        return diskCache.lookup(contentKey);
+    }
+
+    @Override
+    public boolean shouldSpillToDisk(String markdownContent) {
+        return markdownToWordUtil.estimateOutputSize(markdownContent) >= spillThresholdBytes;
+    }
+
+    @Override
+    public Path convertMarkdownToWordFile(String markdownContent) {
+        return convertMarkdownToWordFile(markdownContent, defaultEngine(), markdownToWordUtil.getDefaultTemplate());
+    }
+
+    @Override
+    public Path convertMarkdownToWordFile(String markdownContent, RenderEngine engine, WordTemplate template) {
+        // 复杂度扫描：病态文档直接拒绝，昂贵文档进入低优先级线程池
+        MarkdownComplexity complexity = complexityAnalyzer.requireAccepted(complexityAnalyzer.analyze(markdownContent));
+        ConversionAdmissionController.Admission admission =
+                admissionController.acquire(admissionController.estimateCost(complexity));
+        Path file = null;
+        try {
+            logger.info("开始转换Markdown内容并写入临时文件，长度: {}", markdownContent.length());
+            file = spillFileStore.createTempFile();
+            Path target = file;
+            runWithDeadline(complexity, admission, () -> {
+                try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(target))) {
+                    writeDocument(markdownContent, engine, template, outputStream);
+                }
+                return null;
+            });
+            logger.info("Markdown转换完成，临时文件大小: {}", Files.size(file));
+            return file;
+        } catch (Exception e) {
+            if (file != null) {
+                spillFileStore.delete(file);
+            }
+            if (e instanceof BusinessException businessException) {
+                throw businessException;
+            }
+            logger.error("转换过程中发生异常: {}", e.getMessage(), e);
+            throw new RuntimeException("转换失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public WordTemplate uploadTemplate(String id, byte[] bytes, String owner) {
+        return templateRegistry.upload(id, bytes, owner);
+    }
+
+    @Override
+    public List<Map<String, Object>> listTemplates() {
+        return templateRegistry.list();
+    }
+
+    @Override
+    public byte[] convertMarkdownToHtml(String markdownContent) {
+        if (markdownContent.length() > previewMaxChars) {
+            throw new BusinessException("预览内容过长，最多支持 " + previewMaxChars + " 个字符");
+        }
+        String key = sha256Hex(markdownContent);
+        byte[] cached = htmlPreviewCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long start = System.nanoTime();
+        byte[] html = markdownToHtmlUtil.render(markdownContent).getBytes(StandardCharsets.UTF_8);
+        metrics.recordTime("preview.time-ms", System.nanoTime() - start);
+        htmlPreviewCache.put(key, html);
+        return html;
+    }
+
+    @Override
+    public void convertBatchToZip(List<ConversionSource> sources, OutputStream outputStream) {
+        logger.info("开始批量转换，文档数量: {}", sources.size());
+        CompletionService<BatchItem> completionService = new ExecutorCompletionService<>(batchExecutor);
+        List<Future<BatchItem>> futures = new ArrayList<>();
+        Set<String> usedNames = new HashSet<>();
+        int window = Math.max(1, batchParallelism);
+        int submitted = 0;
+        int failed = 0;
+
+        try (ZipOutputStream zip = new ZipOutputStream(outputStream)) {
+            // 滑动窗口：最多 window 个文档同时转换，每写出一个再提交下一个
+            while (submitted < sources.size() && submitted < window) {
+                futures.add(completionService.submit(newBatchTask(sources.get(submitted), submitted)));
+                submitted++;
+            }
+            for (int done = 0; done < sources.size(); done++) {
+                BatchItem item = completionService.take().get();
+                if (submitted < sources.size()) {
+                    futures.add(completionService.submit(newBatchTask(sources.get(submitted), submitted)));
+                    submitted++;
+                }
+                String baseName = uniqueEntryName(item.name, item.index, usedNames);
+                if (item.error != null) {
+                    failed++;
+                    writeZipEntry(zip, baseName + ".error.txt", item.error.getBytes(StandardCharsets.UTF_8));
+                } else {
+                    writeZipEntry(zip, baseName + ".docx", item.bytes);
+                }
+            }
+            zip.finish();
+            metrics.add("batch.documents", sources.size());
+            logger.info("批量转换完成，文档数量: {}，失败: {}", sources.size(), failed);
+        } catch (IOException e) {
+            // 流式模式下IO异常多为客户端中断连接
+            logger.warn("批量转换写出失败: {}", e.getMessage());
+            throw new RuntimeException("转换失败: 输出流写入错误", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("转换失败: 批量转换被中断", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("转换失败: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            // 客户端中断或出错时取消尚未完成的转换
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    @Override
+    public RenderEngine resolveRenderEngine(String id) {
+        return RenderEngine.fromId(id, defaultEngine());
+    }
+
+    @Override
+    public WordTemplate resolveTemplate(String id) {
+        return templateRegistry.resolve(id);
+    }
+
+    @Override
+    public String computeContentKey(String markdownContent) {
+        return computeContentKey(markdownContent, defaultEngine(), markdownToWordUtil.getDefaultTemplate());
+    }
+
+    @Override
+    public String computeContentKey(String markdownContent, RenderEngine engine, WordTemplate template) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(markdownToWordUtil.getTemplateVersion(engine, template).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(markdownContent.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前JDK不支持SHA-256", e);
+        }
+    }
+
+    /**
+     * 读取字符流的全部内容
+     */
+    private static String readFully(Reader reader) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        char[] buffer = new char[8192];
+        int n;
+        while ((n = reader.read(buffer)) != -1) {
+            builder.append(buffer, 0, n);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 计算文本的SHA-256摘要（十六进制）
+     */
+    private static String sha256Hex(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前JDK不支持SHA-256", e);
+        }
+    }
+
+    /**
+     * 在渲染线程池中执行转换并按截止时间等待
+     * 昂贵文档使用低优先级线程池，避免挤占普通文档的渲染线程。
+     * 超时后中断渲染线程（渲染代码在块级元素之间检查中断并停止），向调用方返回422。
+     * 准入凭证由本方法负责归还：任务开始后由渲染线程在结束时归还，任务未开始即放弃时由当前线程归还，
+     * 保证已超时但仍在收尾的转换继续计入内存预算
+     *
+     * @param complexity 文档复杂度（决定使用的线程池）
+     * @param admission 已获得的准入凭证
+     * @param work 转换任务
+     * @return 转换结果
+     */
+    private <T> T runWithDeadline(MarkdownComplexity complexity, ConversionAdmissionController.Admission admission,
+                                  Callable<T> work) throws Exception {
+        boolean expensive = complexity.getLevel() == MarkdownComplexity.Level.EXPENSIVE;
+        ThreadPoolTaskExecutor executor = expensive ? expensiveRenderExecutor : renderExecutor;
+        if (expensive) {
+            metrics.increment("render.expensive");
+        }
+
+        AtomicBoolean started = new AtomicBoolean();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                if (!started.compareAndSet(false, true)) {
+                    // 调用方已放弃等待，不再执行
+                    return null;
+                }
+                try {
+                    return work.call();
+                } finally {
+                    admission.close();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            admission.close();
+            metrics.increment("render.rejected");
+            throw new TooManyRequestsException("转换请求过多，请稍后重试", 1);
+        }
+
+        try {
+            return renderTimeoutMillis > 0 ? future.get(renderTimeoutMillis, TimeUnit.MILLISECONDS) : future.get();
+        } catch (TimeoutException e) {
+            abandon(future, started, admission);
+            metrics.increment("timeout.count");
+            metrics.recordValue("timeout.input-size", complexity.getChars());
+            logger.warn("转换超时（{} ms）已取消，{}", renderTimeoutMillis, complexity);
+            throw new BusinessException(422, "文档过于复杂，转换未能在 " + renderTimeoutMillis + " 毫秒内完成");
+        } catch (InterruptedException e) {
+            abandon(future, started, admission);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("转换失败: 等待转换结果被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw (Error) e.getCause();
+        }
+    }
+
+    /**
+     * 在截止时间内渲染到临时文件，成功后再写入响应流
+     * POI写出时不响应中断，超时后渲染线程可能仍在写；直接写响应流会让客户端收到截断的200而不是422，
+     * 因此先落盘，超时或失败时响应尚未提交，可以正常返回错误；被放弃的渲染只会写入已删除的临时文件
+     */
+    private void renderThroughSpillFile(MarkdownComplexity complexity, ConversionAdmissionController.Admission admission,
+                                        OutputStream outputStream, DocumentWriter writer) throws Exception {
+        Path file;
+        try {
+            file = spillFileStore.createTempFile();
+        } catch (IOException e) {
+            admission.close();
+            throw e;
+        }
+        try {
+            runWithDeadline(complexity, admission, () -> {
+                try (OutputStream target = new BufferedOutputStream(Files.newOutputStream(file))) {
+                    writer.write(target);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            spillFileStore.delete(file);
+            throw e;
+        }
+        spillFileStore.transferTo(file, outputStream);
+    }
+
+    /**
+     * 放弃等待：中断渲染线程；任务尚未开始时由当前线程归还准入预算
+     */
+    private static void abandon(Future<?> future, AtomicBoolean started, ConversionAdmissionController.Admission admission) {
+        future.cancel(true);
+        if (started.compareAndSet(false, true)) {
+            admission.close();
+        }
+    }
+
+    /**
+     * 等待其他请求正在进行的同一转换，失败时抛出与首个请求相同的异常
+     */
+    private byte[] awaitInFlight(CompletableFuture<byte[]> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("转换失败: 等待转换结果被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("转换失败: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * 配置的默认渲染引擎
+     */
+    private RenderEngine defaultEngine() {
+        return RenderEngine.fromId(defaultRenderer, RenderEngine.POI_TL);
+    }
+
+    /**
+     * 将文档写入输出流，poi-tl引擎下大文档分段并行渲染
+     */
+    private void writeDocument(String markdownContent, RenderEngine engine, WordTemplate template,
+                               OutputStream outputStream) throws IOException {
+        metrics.increment("renderer." + engine.getId() + ".conversions");
+        if (engine == RenderEngine.NATIVE) {
+            markdownToWordUtil.writeMarkdownToWordNative(markdownContent, template, outputStream);
+        } else if (useParallel(markdownContent, template)) {
+            metrics.increment("parallel.conversions");
+            markdownToWordUtil.writeMarkdownToWordParallel(markdownContent, template, sectionPool, outputStream);
+        } else {
+            markdownToWordUtil.writeMarkdownToWord(markdownContent, template, outputStream);
+        }
+    }
+
+    /**
+     * 是否对该文档使用分段并行渲染（只用于内置模板，上传模板中 {{md}} 周围的正文不能逐段重复）
+     */
+    private boolean useParallel(String markdownContent, WordTemplate template) {
+        return parallelEnabled && template.isDefault() && markdownContent.length() >= parallelThresholdChars;
+    }
+
+    /**
+     * 创建单个文档的转换任务，转换失败时记录错误信息而不是中断整个批量
+     */
+    private Callable<BatchItem> newBatchTask(ConversionSource source, int index) {
+        return () -> {
+            BatchItem item = new BatchItem(index, source.getName());
+            try {
+                String markdownContent = source.load();
+                if (markdownContent == null || markdownContent.trim().isEmpty()) {
+                    item.error = "Markdown content cannot be null or empty";
+                } else {
+                    item.bytes = convertMarkdownToWord(markdownContent);
+                }
+            } catch (Exception e) {
+                logger.warn("批量转换中单个文档失败，序号: {}，原因: {}", index, e.getMessage());
+                item.error = e.getMessage();
+            }
+            return item;
+        };
+    }
+
+    /**
+     * 写入一个ZIP条目
+     * DOCX本身已是压缩格式，使用STORED方式避免重复压缩
+     */
+    private void writeZipEntry(ZipOutputStream zip, String name, byte[] bytes) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(bytes.length);
+        entry.setCompressedSize(bytes.length);
+        entry.setCrc(crc.getValue());
+        zip.putNextEntry(entry);
+        zip.write(bytes);
+        zip.closeEntry();
+    }
+
+    /**
+     * 生成ZIP内不重复的文件名（去掉路径和Markdown扩展名）
+     */
+    private String uniqueEntryName(String name, int index, Set<String> usedNames) {
+        String base = name == null ? "" : name.replace('\\', '/');
+        base = base.substring(base.lastIndexOf('/') + 1).replaceAll("(?i)\\.(md|markdown|txt)$", "").trim();
+        if (base.isEmpty()) {
+            base = "document-" + (index + 1);
+        }
+        String candidate = base;
+        for (int i = 1; !usedNames.add(candidate); i++) {
+            candidate = base + "(" + i + ")";
+        }
+        return candidate;
+    }
+
+    /**
+     * 将文档写入给定输出流的渲染步骤
+     */
+    @FunctionalInterface
+    private interface DocumentWriter {
+        void write(OutputStream outputStream) throws Exception;
+    }
+
+    /**
+     * 读取上传内容时检查复杂度和内存预算的字符流
+     * 每读入一批字符检查一次拒绝阈值，并按当前统计扩大准入；超限时在构建完整语法树之前停止读取
+     */
+    private class AdmissionGuardReader extends FilterReader {
+
+        private final MarkdownComplexity complexity;
+        private final ConversionAdmissionController.Admission admission;
+        private long nextCheckChars = GUARD_CHECK_INTERVAL_CHARS;
+
+        AdmissionGuardReader(Reader in, MarkdownComplexity complexity, ConversionAdmissionController.Admission admission) {
+            super(in);
+            this.complexity = complexity;
+            this.admission = admission;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            check();
+            return c;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            check();
+            return n;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void check() {
+            if (complexity.getChars() < nextCheckChars) {
+                return;
+            }
+            nextCheckChars = complexity.getChars() + GUARD_CHECK_INTERVAL_CHARS;
+            complexityAnalyzer.checkRejectLimits(complexity);
+            long cost = admissionController.estimateCost(complexity);
+            if (cost > admission.getCostBytes()) {
+                // 每次多申请一段余量，避免频繁排队；余量不超过整个预算
+                long target = Math.max(cost, Math.min(cost + GUARD_GROW_STEP_BYTES, admissionController.getBudgetBytes()));
+                admission.resize(target);
+            }
+        }
+    }
+
+    /**
+     * 批量转换中单个文档的结果
+     */
+    private static class BatchItem {
+        private final int index;
+        private final String name;
+        private byte[] bytes;
+        private String error;
+
+        BatchItem(int index, String name) {
+            this.index = index;
+            this.name = name;
+        }
+    }
 }
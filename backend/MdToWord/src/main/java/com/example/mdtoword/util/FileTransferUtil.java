@@ -0,0 +1,90 @@
+package com.example.mdtoword.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 文件发送工具类
+ *
+ * 功能：
+ * 1. Tomcat sendfile：设置请求属性后由连接器直接把文件交给内核发送（零拷贝），应用不写响应体
+ * 2. 不支持 sendfile 时（非Tomcat、APR/NIO未开启sendfile），用 FileChannel.transferTo 写入响应流
+ */
+public final class FileTransferUtil {
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private FileTransferUtil() {
+    }
+
+    /**
+     * 当前连接器是否支持 sendfile
+     *
+     * @param request 当前请求
+     * @return 是否支持
+     */
+    public static boolean isSendfileSupported(HttpServletRequest request) {
+        return Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR));
+    }
+
+    /**
+     * 请求连接器用 sendfile 发送文件的 [start, end) 区间
+     * 调用方必须设置 Content-Length 为 end - start，且不得再写响应体
+     *
+     * @param request 当前请求
+     * @param file 文件路径
+     * @param start 起始偏移（含）
+     * @param end 结束偏移（不含）
+     */
+    public static void sendfile(HttpServletRequest request, Path file, long start, long end) {
+        request.setAttribute(SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+        request.setAttribute(SENDFILE_START_ATTR, start);
+        request.setAttribute(SENDFILE_END_ATTR, end);
+    }
+
+    /**
+     * 将文件的 [start, end) 区间写入输出流
+     *
+     * @param file 文件路径
+     * @param start 起始偏移（含）
+     * @param end 结束偏移（不含）
+     * @param outputStream 目标输出流
+     * @return 写出的字节数
+     */
+    public static long transfer(Path file, long start, long end, OutputStream outputStream) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return transfer(channel, start, end, outputStream);
+        }
+    }
+
+    /**
+     * 将已打开文件的 [start, end) 区间写入输出流，不关闭通道
+     * 文件在打开之后被删除时仍可读完（POSIX语义）
+     *
+     * @param channel 文件通道
+     * @param start 起始偏移（含）
+     * @param end 结束偏移（不含）
+     * @param outputStream 目标输出流
+     * @return 写出的字节数
+     */
+    public static long transfer(FileChannel channel, long start, long end, OutputStream outputStream) throws IOException {
+        WritableByteChannel target = Channels.newChannel(outputStream);
+        long limit = Math.min(end, channel.size());
+        long position = start;
+        while (position < limit) {
+            position += channel.transferTo(position, limit - position, target);
+        }
+        outputStream.flush();
+        return position - start;
+    }
+}
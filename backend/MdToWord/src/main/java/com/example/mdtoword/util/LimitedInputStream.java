@@ -0,0 +1,72 @@
+package com.example.mdtoword.util;
+
+import com.example.mdtoword.exception.BusinessException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 限制读取字节数的输入流
+ *
+ * 统计已读取的字节数，超过上限时抛出413业务异常。
+ * 包在解压流外层使用时，限制的是解压后的大小，可防止gzip炸弹
+ */
+public class LimitedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private long count;
+
+    /**
+     * @param in 原始输入流
+     * @param maxBytes 最多允许读取的字节数
+     */
+    public LimitedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            advance(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        advance(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * 已读取的字节数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    private void advance(long n) {
+        count += n;
+        if (count > maxBytes) {
+            throw new BusinessException(413, "上传内容过大，最多支持 " + maxBytes + " 字节");
+        }
+    }
+}
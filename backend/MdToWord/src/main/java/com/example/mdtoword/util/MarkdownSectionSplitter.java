@@ -0,0 +1,136 @@
+package com.example.mdtoword.util;
+
+import org.commonmark.ext.gfm.tables.TablesExtension;
+import org.commonmark.node.AbstractVisitor;
+import org.commonmark.node.Heading;
+import org.commonmark.node.LinkReferenceDefinition;
+import org.commonmark.node.Node;
+import org.commonmark.node.SourceSpan;
+import org.commonmark.parser.IncludeSourceSpans;
+import org.commonmark.parser.Parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Markdown分段工具
+ *
+ * 功能：
+ * 1. 使用CommonMark解析文档，在顶级标题处切分为若干段，供并行渲染
+ * 2. 切分位置取自语法树的源码位置，代码块中的 # 不会被误判为标题
+ * 3. 按目标段数合并相邻小段，使各段大小尽量均衡
+ * 4. 链接引用定义（[x]: url）只在所在的段内生效，文档包含定义时不切分，整篇串行渲染，
+ *    保证分段与否的输出一致
+ */
+public final class MarkdownSectionSplitter {
+
+    // CommonMark Parser 线程安全，可全局共享
+    private static final Parser PARSER = Parser.builder()
+            .extensions(List.of(TablesExtension.create()))
+            .includeSourceSpans(IncludeSourceSpans.BLOCKS)
+            .build();
+
+    private MarkdownSectionSplitter() {
+    }
+
+    /**
+     * 切分Markdown文档
+     *
+     * @param markdownContent Markdown内容
+     * @param targetSections 期望的段数（通常为并行度的倍数）
+     * @return 按原顺序排列的各段内容；无法切分或包含链接引用定义时只返回原文一段
+     */
+    public static List<String> split(String markdownContent, int targetSections) {
+        Node document = PARSER.parse(markdownContent);
+        if (hasLinkReferenceDefinitions(document)) {
+            return List.of(markdownContent);
+        }
+
+        // 以文档中出现的最高级标题作为切分层级
+        int topLevel = Integer.MAX_VALUE;
+        for (Node node = document.getFirstChild(); node != null; node = node.getNext()) {
+            if (node instanceof Heading heading) {
+                topLevel = Math.min(topLevel, heading.getLevel());
+            }
+        }
+        if (topLevel == Integer.MAX_VALUE) {
+            return List.of(markdownContent);
+        }
+
+        int[] lineStarts = lineStarts(markdownContent);
+        List<Integer> boundaries = new ArrayList<>();
+        boolean firstHeadingSeen = false;
+        for (Node node = document.getFirstChild(); node != null; node = node.getNext()) {
+            if (node instanceof Heading heading && heading.getLevel() == topLevel && !node.getSourceSpans().isEmpty()) {
+                // 第一个标题之前的内容（前言）与第一段合并，不单独成段
+                if (!firstHeadingSeen) {
+                    firstHeadingSeen = true;
+                    continue;
+                }
+                SourceSpan span = node.getSourceSpans().get(0);
+                boundaries.add(lineStarts[span.getLineIndex()]);
+            }
+        }
+        if (boundaries.isEmpty()) {
+            return List.of(markdownContent);
+        }
+        boundaries.add(markdownContent.length());
+
+        return group(markdownContent, boundaries, Math.max(1, targetSections));
+    }
+
+    /**
+     * 文档中是否有链接引用定义（可能位于引用块、列表等容器内）
+     */
+    private static boolean hasLinkReferenceDefinitions(Node document) {
+        boolean[] found = new boolean[1];
+        document.accept(new AbstractVisitor() {
+            @Override
+            public void visit(LinkReferenceDefinition definition) {
+                found[0] = true;
+            }
+        });
+        return found[0];
+    }
+
+    /**
+     * 将相邻的小段合并为约 targetSections 段，每段长度接近 总长度/targetSections
+     */
+    private static List<String> group(String markdownContent, List<Integer> boundaries, int targetSections) {
+        long targetLength = Math.max(1, markdownContent.length() / targetSections);
+        List<String> sections = new ArrayList<>();
+        int sectionStart = 0;
+        for (int boundary : boundaries) {
+            boolean last = boundary == markdownContent.length();
+            if (boundary - sectionStart >= targetLength || last) {
+                sections.add(markdownContent.substring(sectionStart, boundary));
+                sectionStart = boundary;
+            }
+        }
+        return sections;
+    }
+
+    /**
+     * 计算每一行在原文中的起始偏移（与CommonMark一致，支持 \n、\r\n、\r 换行）
+     */
+    private static int[] lineStarts(String text) {
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\r') {
+                if (i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                starts.add(i + 1);
+            } else if (c == '\n') {
+                starts.add(i + 1);
+            }
+        }
+        int[] result = new int[starts.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = starts.get(i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.mdtoword.util;
+
+import org.commonmark.Extension;
+import org.commonmark.ext.gfm.tables.TablesExtension;
+import org.commonmark.node.Node;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Markdown转HTML工具类（用于编辑时的实时预览）
+ *
+ * 设计说明：
+ * 1. Parser 和 HtmlRenderer 构建后不可变、线程安全，全局只创建一次
+ * 2. 启用GFM表格扩展，与Word转换支持的语法保持一致
+ * 3. 预览内容来自用户输入，原始HTML标签按文本转义，javascript: 等危险链接被清除
+ */
+@Component
+public class MarkdownToHtmlUtil {
+
+    private static final List<Extension> EXTENSIONS = List.of(TablesExtension.create());
+
+    private static final Parser PARSER = Parser.builder()
+            .extensions(EXTENSIONS)
+            .build();
+
+    private static final HtmlRenderer RENDERER = HtmlRenderer.builder()
+            .extensions(EXTENSIONS)
+            .escapeHtml(true)
+            .sanitizeUrls(true)
+            .build();
+
+    /**
+     * 将Markdown内容渲染为HTML片段
+     *
+     * @param markdownContent Markdown内容
+     * @return HTML片段（不含html/body标签）
+     */
+    public String render(String markdownContent) {
+        Node document = PARSER.parse(markdownContent);
+        return RENDERER.render(document);
+    }
+}
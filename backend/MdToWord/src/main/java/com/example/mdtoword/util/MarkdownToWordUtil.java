@@ -2,23 +2,137 @@ package com.example.mdtoword.util;
 
 
 import com.deepoove.poi.XWPFTemplate;
+import com.example.mdtoword.converter.ConversionCancellation;
+import com.example.mdtoword.converter.ConverterMetrics;
+import com.example.mdtoword.converter.LocalImageResolver;
+import com.example.mdtoword.converter.RenderEngine;
+import com.example.mdtoword.converter.WordTemplate;
 import com.deepoove.poi.config.Configure;
 import com.deepoove.poi.data.style.*;
 import com.deepoove.poi.plugin.markdown.MarkdownRenderData;
 import com.deepoove.poi.plugin.markdown.MarkdownRenderPolicy;
 import com.deepoove.poi.plugin.markdown.MarkdownStyle;
+import com.deepoove.poi.template.ElementTemplate;
+import com.deepoove.poi.xwpf.NiceXWPFDocument;
+import jakarta.annotation.PostConstruct;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import org.apache.poi.xwpf.usermodel.XWPFTable;
 import org.apache.poi.xwpf.usermodel.XWPFTableCell;
+import org.commonmark.node.Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
 import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 @Component
 public class MarkdownToWordUtil {
 
+    private static final Logger logger = LoggerFactory.getLogger(MarkdownToWordUtil.class);
+
+    // 模板路径
+    private static final String TEMPLATE_PATH = "templates/markdown_template.docx";
+
+    // 模板中Markdown内容的标签名
+    private static final String MARKDOWN_TAG = "md";
+
+    // 样式版本号，修改 createMarkdownStyle 后需要同步递增，用于区分转换结果
+    private static final String STYLE_VERSION = "1";
+
+    /**
+     * 内置模板，启动时读取一次，之后每次转换都从内存编译，避免重复读取 classpath 资源
+     * 上传的模板由 TemplateRegistry 管理，通过带 WordTemplate 参数的方法使用
+     */
+    private WordTemplate defaultTemplate;
+
+    /**
+     * 渲染配置与 Markdown 样式在启动后不再修改，所有请求共享同一实例
+     */
+    private Configure configure;
+    private MarkdownStyle markdownStyle;
+
+    /**
+     * 支持线程级内存分配统计的 ThreadMXBean，不支持时为null
+     */
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = allocationTrackingBean();
+
+    private final ConverterMetrics metrics;
+
+    // 原生渲染器嵌入本地图片使用，为null时图片以替代文本占位
+    private final LocalImageResolver imageResolver;
+
+    @Autowired
+    public MarkdownToWordUtil(ConverterMetrics metrics, LocalImageResolver imageResolver) {
+        this.metrics = metrics;
+        this.imageResolver = imageResolver;
+    }
+
+    /**
+     * 不经过Spring创建时使用（基准测试等），指标记录到独立实例，不嵌入图片
+     */
+    public MarkdownToWordUtil() {
+        this(new ConverterMetrics(), null);
+    }
+
+    /**
+     * 启动时加载模板并构建共享的渲染配置
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        try (InputStream in = new ClassPathResource(TEMPLATE_PATH).getInputStream()) {
+            defaultTemplate = new WordTemplate(WordTemplate.DEFAULT_ID, 1, in.readAllBytes(),
+                    ManagementFactory.getRuntimeMXBean().getStartTime());
+        }
+        configure = Configure.builder()
+                .bind(MARKDOWN_TAG, new MarkdownRenderPolicy())
+                .build();
+        markdownStyle = createMarkdownStyle();
+        logger.info("Markdown模板加载完成，大小: {} 字节，版本: {}",
+                defaultTemplate.getBytes().length, getTemplateVersion());
+    }
+
+    /**
+     * 校验模板：能被poi-tl编译，且包含Markdown内容标签 {{md}}
+     * 上传模板时调用一次，校验通过的模板之后直接从内存编译
+     *
+     * @param templateBytes 模板文件字节
+     * @throws IllegalArgumentException 模板无效时抛出，消息说明原因
+     */
+    public void validateTemplate(byte[] templateBytes) {
+        XWPFTemplate template;
+        try {
+            template = XWPFTemplate.compile(new ByteArrayInputStream(templateBytes), configure);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("不是有效的Word模板: " + e.getMessage(), e);
+        }
+        try {
+            boolean hasTag = template.getElementTemplates().stream()
+                    .anyMatch(element -> element instanceof ElementTemplate tag && MARKDOWN_TAG.equals(tag.getTagName()));
+            if (!hasTag) {
+                throw new IllegalArgumentException("模板中缺少 {{" + MARKDOWN_TAG + "}} 标签");
+            }
+        } finally {
+            closeQuietly(template);
+        }
+    }
+
+    /**
+     * 获取内置模板
+     */
+    public WordTemplate getDefaultTemplate() {
+        return defaultTemplate;
+    }
+
     /**
      * 将Markdown内容转换为Word字节数组
      *
@@ -26,34 +140,458 @@ public class MarkdownToWordUtil {
      * @return Word文档字节数组
      */
     public byte[] convertMarkdownToWordBytes(String markdownContent) throws IOException {
-        MarkdownRenderData markdownData = new MarkdownRenderData();
-        markdownData.setMarkdown(markdownContent);
+        return convertMarkdownToWordBytes(markdownContent, defaultTemplate);
+    }
 
-        // 设置Markdown样式
-        MarkdownStyle style = createMarkdownStyle();
-        markdownData.setStyle(style);
+    /**
+     * 使用指定模板将Markdown内容转换为Word字节数组
+     *
+     * @param markdownContent Markdown内容
+     * @param template Word模板
+     * @return Word文档字节数组
+     */
+    public byte[] convertMarkdownToWordBytes(String markdownContent, WordTemplate template) throws IOException {
+        // 预估输出大小，减少 ByteArrayOutputStream 扩容时的数组拷贝
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream(estimateOutputSize(markdownContent, template))) {
+            writeMarkdownToWord(markdownContent, template, outputStream);
+            return outputStream.toByteArray();
+        }
+    }
 
-        // 绑定数据
-        Map<String, Object> data = new HashMap<>();
-        data.put("md", markdownData);
+    /**
+     * 将Markdown内容转换为Word并直接写入输出流
+     * 不在内存中保留完整的文档字节，适合直接写入HTTP响应
+     *
+     * @param markdownContent Markdown内容
+     * @param outputStream 目标输出流，由调用方负责关闭
+     */
+    public void writeMarkdownToWord(String markdownContent, OutputStream outputStream) throws IOException {
+        writeMarkdownToWord(markdownContent, defaultTemplate, outputStream);
+    }
 
-        // 配置渲染策略
-        Configure config = Configure.builder()
-                .bind("md", new MarkdownRenderPolicy())
-                .build();
+    /**
+     * 使用指定模板将Markdown内容转换为Word并直接写入输出流
+     *
+     * @param markdownContent Markdown内容
+     * @param wordTemplate Word模板
+     * @param outputStream 目标输出流，由调用方负责关闭
+     */
+    public void writeMarkdownToWord(String markdownContent, WordTemplate wordTemplate, OutputStream outputStream) throws IOException {
+        long start = System.nanoTime();
+        Phase phase = new Phase("compile");
+        XWPFTemplate template = XWPFTemplate.compile(new ByteArrayInputStream(wordTemplate.getBytes()), configure);
+        phase.end();
+        try {
+            // poi-tl Markdown插件在渲染时解析Markdown，解析耗时计入render阶段
+            phase = new Phase("render");
+            template.render(createData(markdownContent));
+            phase.end();
+
+            phase = new Phase("serialize");
+            CountingOutputStream counting = new CountingOutputStream(outputStream);
+            template.write(counting);
+            phase.end();
+
+            recordConversion(RenderEngine.POI_TL, utf8Length(markdownContent), counting.count, start);
+        } finally {
+            template.close();
+        }
+    }
+
+    /**
+     * 使用原生渲染器转换Markdown内容，并直接写入输出流
+     *
+     * 不经过poi-tl模板引擎：CommonMark解析后直接遍历语法树写入XWPFDocument，
+     * 页面设置取自同一模板，样式与 createMarkdownStyle 一致。
+     * 解析与渲染分开计时（phase.native-parse / phase.native-render）
+     *
+     * @param markdownContent Markdown内容
+     * @param template Word模板（取页面设置）
+     * @param outputStream 目标输出流，由调用方负责关闭
+     */
+    public void writeMarkdownToWordNative(String markdownContent, WordTemplate template, OutputStream outputStream) throws IOException {
+        long start = System.nanoTime();
+        Phase phase = new Phase("native-parse");
+        Node root = NativeMarkdownRenderer.parse(markdownContent);
+        phase.end();
+
+        writeMarkdownToWordNative(root, utf8Length(markdownContent), template, start, outputStream);
+    }
+
+    /**
+     * 从字符流增量解析Markdown
+     * 输入按行读取，解析期间只保留语法树，不保留完整的Markdown字符串
+     *
+     * @param reader 字符流，由调用方关闭
+     * @return 语法树根节点，交给 writeMarkdownToWordNative 渲染
+     */
+    public Node parseMarkdown(Reader reader) throws IOException {
+        Phase phase = new Phase("native-parse");
+        Node root = NativeMarkdownRenderer.parse(reader);
+        phase.end();
+        return root;
+    }
+
+    /**
+     * 使用原生渲染器将已解析的语法树写入输出流
+     *
+     * @param root 语法树根节点
+     * @param inputBytes 原始Markdown的字节数（用于指标）
+     * @param template Word模板（取页面设置）
+     * @param outputStream 目标输出流，由调用方负责关闭
+     */
+    public void writeMarkdownToWordNative(Node root, long inputBytes, WordTemplate template, OutputStream outputStream) throws IOException {
+        writeMarkdownToWordNative(root, inputBytes, template, System.nanoTime(), outputStream);
+    }
+
+    private void writeMarkdownToWordNative(Node root, long inputBytes, WordTemplate template, long start,
+                                           OutputStream outputStream) throws IOException {
+        Phase phase = new Phase("native-open");
+        XWPFDocument document = new XWPFDocument(new ByteArrayInputStream(template.getBytes()));
+        phase.end();
+        try {
+            phase = new Phase("native-render");
+            // 移除模板中的占位段落，保留页面设置（sectPr）
+            while (!document.getBodyElements().isEmpty()) {
+                document.removeBodyElement(0);
+            }
+            new NativeMarkdownRenderer(document, imageResolver).render(root);
+            phase.end();
+
+            phase = new Phase("serialize");
+            CountingOutputStream counting = new CountingOutputStream(outputStream);
+            document.write(counting);
+            phase.end();
+
+            recordConversion(RenderEngine.NATIVE, inputBytes, counting.count, start);
+        } finally {
+            document.close();
+        }
+    }
+
+    /**
+     * 使用原生渲染器将Markdown内容转换为Word字节数组
+     *
+     * @param markdownContent Markdown内容
+     * @return Word文档字节数组
+     */
+    public byte[] convertMarkdownToWordBytesNative(String markdownContent) throws IOException {
+        return convertMarkdownToWordBytesNative(markdownContent, defaultTemplate);
+    }
+
+    /**
+     * 使用原生渲染器和指定模板将Markdown内容转换为Word字节数组
+     *
+     * @param markdownContent Markdown内容
+     * @param template Word模板（取页面设置）
+     * @return Word文档字节数组
+     */
+    public byte[] convertMarkdownToWordBytesNative(String markdownContent, WordTemplate template) throws IOException {
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream(estimateOutputSize(markdownContent, template))) {
+            writeMarkdownToWordNative(markdownContent, template, outputStream);
+            return outputStream.toByteArray();
+        }
+    }
+
+    /**
+     * 分段并行转换Markdown内容，并直接写入输出流
+     *
+     * 在顶级标题处切分文档，各段在线程池中独立渲染，再按原顺序合并为一个文档。
+     * 合并使用 poi-tl 的 NiceXWPFDocument.merge，会重新分配编号（numbering）、
+     * 样式和关系ID（超链接、图片），各段的列表编号互不干扰。
+     * 无法切分（没有标题、只有一段或包含链接引用定义）时退化为普通转换。
+     * 只对内置模板分段：上传的模板在 {{md}} 周围可能有封面、免责声明等正文，
+     * 每段都套用模板再合并会让这些内容重复出现，因此按整篇渲染。
+     *
+     * @param markdownContent Markdown内容
+     * @param wordTemplate Word模板
+     * @param pool 分段渲染使用的线程池
+     * @param outputStream 目标输出流，由调用方负责关闭
+     */
+    public void writeMarkdownToWordParallel(String markdownContent, WordTemplate wordTemplate, ForkJoinPool pool,
+                                            OutputStream outputStream) throws IOException {
+        if (!wordTemplate.isDefault()) {
+            writeMarkdownToWord(markdownContent, wordTemplate, outputStream);
+            return;
+        }
+        long start = System.nanoTime();
+        // 每个线程约两段，减少段大小不均造成的空等
+        List<String> sections = MarkdownSectionSplitter.split(markdownContent, pool.getParallelism() * 2);
+        if (sections.size() <= 1) {
+            writeMarkdownToWord(markdownContent, wordTemplate, outputStream);
+            return;
+        }
+        logger.debug("Markdown分段并行渲染，段数: {}", sections.size());
 
-        // 使用模板进行渲染
-        ClassPathResource resource = new ClassPathResource("templates/markdown_template.docx");
+        List<ForkJoinTask<XWPFTemplate>> tasks = new ArrayList<>(sections.size());
+        for (String section : sections) {
+            tasks.add(pool.submit(() -> renderTemplate(section, wordTemplate)));
+        }
+        try {
+            // 按原顺序收集，任一段失败时在finally中取消其余分段
+            NiceXWPFDocument first = tasks.get(0).join().getXWPFDocument();
+            List<NiceXWPFDocument> rest = new ArrayList<>(tasks.size() - 1);
+            for (int i = 1; i < tasks.size(); i++) {
+                ConversionCancellation.checkpoint();
+                rest.add(tasks.get(i).join().getXWPFDocument());
+            }
+            Phase phase = new Phase("merge");
+            NiceXWPFDocument merged = first.merge(rest, first.createParagraph().createRun());
+            phase.end();
+            try {
+                phase = new Phase("serialize");
+                CountingOutputStream counting = new CountingOutputStream(outputStream);
+                merged.write(counting);
+                phase.end();
+                recordConversion(RenderEngine.POI_TL, utf8Length(markdownContent), counting.count, start);
+            } finally {
+                merged.close();
+            }
+        } catch (IOException | CancellationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("分段合并失败: " + e.getMessage(), e);
+        } finally {
+            // 取消未完成的分段，关闭已渲染的模板
+            for (ForkJoinTask<XWPFTemplate> task : tasks) {
+                task.cancel(false);
+                if (task.isDone() && !task.isCompletedAbnormally()) {
+                    closeQuietly(task.getRawResult());
+                }
+            }
+        }
+    }
 
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            XWPFTemplate.compile(resource.getInputStream(), config)
-                    .render(data)
-                    .write(outputStream);
+    /**
+     * 分段并行转换Markdown内容为Word字节数组
+     *
+     * @param markdownContent Markdown内容
+     * @param pool 分段渲染使用的线程池
+     * @return Word文档字节数组
+     */
+    public byte[] convertMarkdownToWordBytesParallel(String markdownContent, ForkJoinPool pool) throws IOException {
+        return convertMarkdownToWordBytesParallel(markdownContent, defaultTemplate, pool);
+    }
 
+    /**
+     * 使用指定模板分段并行转换Markdown内容为Word字节数组
+     *
+     * @param markdownContent Markdown内容
+     * @param template Word模板
+     * @param pool 分段渲染使用的线程池
+     * @return Word文档字节数组
+     */
+    public byte[] convertMarkdownToWordBytesParallel(String markdownContent, WordTemplate template, ForkJoinPool pool) throws IOException {
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream(estimateOutputSize(markdownContent, template))) {
+            writeMarkdownToWordParallel(markdownContent, template, pool, outputStream);
             return outputStream.toByteArray();
         }
     }
 
+    /**
+     * 预估输出文档的字节数：模板大小 + Markdown字符数
+     * DOCX中的XML经过压缩，实际输出通常不超过该值
+     *
+     * @param markdownContent Markdown内容
+     * @return 预估字节数
+     */
+    public int estimateOutputSize(String markdownContent) {
+        return estimateOutputSize(markdownContent, defaultTemplate);
+    }
+
+    /**
+     * 预估使用指定模板时输出文档的字节数
+     *
+     * @param markdownContent Markdown内容
+     * @param template Word模板
+     * @return 预估字节数
+     */
+    public int estimateOutputSize(String markdownContent, WordTemplate template) {
+        return (int) Math.min(Integer.MAX_VALUE - 8, (long) template.getBytes().length + markdownContent.length());
+    }
+
+    /**
+     * 获取模板与样式的版本标识
+     * 模板或样式变化时该值随之变化，可用于构建转换结果的缓存键
+     *
+     * @return 版本标识
+     */
+    public String getTemplateVersion() {
+        return getTemplateVersion(defaultTemplate);
+    }
+
+    /**
+     * 获取指定模板与样式的版本标识（模板内容摘要 + 样式版本）
+     *
+     * @param template Word模板
+     * @return 版本标识
+     */
+    public String getTemplateVersion(WordTemplate template) {
+        return template.getDigest() + "-s" + STYLE_VERSION;
+    }
+
+    /**
+     * 获取指定渲染引擎的版本标识
+     * 原生引擎在模板版本之后追加引擎名称和渲染器版本，两种引擎的结果不会共用缓存键
+     *
+     * @param engine 渲染引擎
+     * @return 版本标识
+     */
+    public String getTemplateVersion(RenderEngine engine) {
+        return getTemplateVersion(engine, defaultTemplate);
+    }
+
+    /**
+     * 获取指定渲染引擎与模板的版本标识
+     *
+     * @param engine 渲染引擎
+     * @param template Word模板
+     * @return 版本标识
+     */
+    public String getTemplateVersion(RenderEngine engine, WordTemplate template) {
+        String templateVersion = getTemplateVersion(template);
+        if (engine == RenderEngine.NATIVE) {
+            return templateVersion + "-" + engine.getId() + NativeMarkdownRenderer.VERSION;
+        }
+        return templateVersion;
+    }
+
+    /**
+     * 编译模板并渲染一段Markdown，返回的模板由调用方关闭
+     */
+    private XWPFTemplate renderTemplate(String markdownContent, WordTemplate wordTemplate) {
+        Phase phase = new Phase("compile");
+        XWPFTemplate template = XWPFTemplate.compile(new ByteArrayInputStream(wordTemplate.getBytes()), configure);
+        phase.end();
+        try {
+            phase = new Phase("render");
+            template.render(createData(markdownContent));
+            phase.end();
+            return template;
+        } catch (RuntimeException e) {
+            closeQuietly(template);
+            throw e;
+        }
+    }
+
+    private static void closeQuietly(XWPFTemplate template) {
+        try {
+            template.close();
+        } catch (IOException e) {
+            logger.debug("关闭模板失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 记录一次完整转换的耗时和输入、输出字节数
+     * 耗时同时按引擎记录（conversion.{引擎}.time-ms），用于对比两种渲染引擎
+     */
+    private void recordConversion(RenderEngine engine, long inputBytes, long outputBytes, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        metrics.recordTime("conversion.time-ms", elapsed);
+        metrics.recordTime("conversion." + engine.getId() + ".time-ms", elapsed);
+        metrics.recordValue("conversion.input-bytes", inputBytes);
+        metrics.recordValue("conversion.output-bytes", outputBytes);
+    }
+
+    /**
+     * 计算字符串的UTF-8编码长度，不实际编码
+     */
+    private static long utf8Length(String text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 当前线程累计分配的堆内存字节数，不支持时返回0
+     */
+    private static long currentThreadAllocatedBytes() {
+        return THREAD_MX_BEAN == null ? 0 : THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationTrackingBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+
+    /**
+     * 转换阶段计时，记录该阶段在当前线程中的耗时和内存分配量
+     * 指标名称：phase.{阶段}.time-ms、phase.{阶段}.allocated-bytes
+     * 进入新阶段前检查线程中断，已取消的转换不再继续
+     */
+    private final class Phase {
+        private final String name;
+        private final long startNanos;
+        private final long startAllocated;
+
+        private Phase(String name) {
+            // 阶段之间检查中断：poi-tl 渲染过程本身无法中途停止
+            ConversionCancellation.checkpoint();
+            this.name = name;
+            this.startAllocated = currentThreadAllocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+
+        private void end() {
+            long elapsed = System.nanoTime() - startNanos;
+            metrics.recordTime("phase." + name + ".time-ms", elapsed);
+            metrics.recordValue("phase." + name + ".allocated-bytes", currentThreadAllocatedBytes() - startAllocated);
+        }
+    }
+
+    /**
+     * 统计写出字节数的输出流
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    /**
+     * 构建单次渲染的数据，样式对象为共享的只读实例
+     */
+    private Map<String, Object> createData(String markdownContent) {
+        MarkdownRenderData markdownData = new MarkdownRenderData();
+        markdownData.setMarkdown(markdownContent);
+        markdownData.setStyle(markdownStyle);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("md", markdownData);
+        return data;
+    }
+
     /**
      * 创建Markdown样式配置
      *
@@ -0,0 +1,595 @@
+package com.example.mdtoword.util;
+
+import com.example.mdtoword.converter.ConversionCancellation;
+import com.example.mdtoword.converter.LocalImageResolver;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.util.Units;
+import org.apache.poi.xwpf.usermodel.Borders;
+import org.apache.poi.xwpf.usermodel.ParagraphAlignment;
+import org.apache.poi.xwpf.usermodel.TableWidthType;
+import org.apache.poi.xwpf.usermodel.UnderlinePatterns;
+import org.apache.poi.xwpf.usermodel.XWPFAbstractNum;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFNumbering;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.apache.poi.xwpf.usermodel.XWPFStyle;
+import org.apache.poi.xwpf.usermodel.XWPFStyles;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.apache.poi.xwpf.usermodel.XWPFTableCell;
+import org.apache.poi.xwpf.usermodel.XWPFTableRow;
+import org.commonmark.ext.gfm.tables.TableBlock;
+import org.commonmark.ext.gfm.tables.TableCell;
+import org.commonmark.ext.gfm.tables.TableRow;
+import org.commonmark.ext.gfm.tables.TablesExtension;
+import org.commonmark.node.BlockQuote;
+import org.commonmark.node.BulletList;
+import org.commonmark.node.Code;
+import org.commonmark.node.Emphasis;
+import org.commonmark.node.FencedCodeBlock;
+import org.commonmark.node.HardLineBreak;
+import org.commonmark.node.Heading;
+import org.commonmark.node.HtmlBlock;
+import org.commonmark.node.HtmlInline;
+import org.commonmark.node.Image;
+import org.commonmark.node.IndentedCodeBlock;
+import org.commonmark.node.Link;
+import org.commonmark.node.ListItem;
+import org.commonmark.node.Node;
+import org.commonmark.node.OrderedList;
+import org.commonmark.node.Paragraph;
+import org.commonmark.node.SoftLineBreak;
+import org.commonmark.node.StrongEmphasis;
+import org.commonmark.node.Text;
+import org.commonmark.node.ThematicBreak;
+import org.commonmark.parser.Parser;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTAbstractNum;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTLvl;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTNumLvl;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTPPr;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTPPrGeneral;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTRPr;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTShd;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTStyle;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.STJc;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.STNumberFormat;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.STShd;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.STStyleType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * CommonMark语法树直接渲染为Word（不经过poi-tl模板引擎）
+ *
+ * 功能：
+ * 1. 遍历CommonMark语法树，将标题、段落、列表、表格、代码块、引用直接写入XWPFDocument
+ * 2. 样式与 MarkdownToWordUtil.createMarkdownStyle 保持一致：
+ *    标题不编号；表头灰色背景（cccccc）、黑色加粗12号字、垂直居中；表格黑色单线边框（大小3）；
+ *    引用段前段后0.5行、黑色斜体8号字
+ * 3. 每个有序列表使用独立的编号实例，从列表的起始序号重新编号
+ *
+ * 4. 每个块级元素和表格行之前检查线程中断，转换超时后及时停止
+ * 5. 本地上传的图片（/api/file/rte、/api/file/avatar）经 LocalImageResolver 缩放后嵌入，其余图片以替代文本占位
+ *
+ * 渲染器实例只用于一次渲染，不是线程安全的；Parser可全局共享
+ */
+public class NativeMarkdownRenderer {
+
+    // 渲染输出格式版本，样式或结构变化时递增，使旧的缓存结果失效
+    static final String VERSION = "2";
+
+    // CommonMark Parser 线程安全，可全局共享
+    private static final Parser PARSER = Parser.builder()
+            .extensions(List.of(TablesExtension.create()))
+            .build();
+
+    private static final String CODE_FONT = "Consolas";
+    private static final String CODE_BACKGROUND = "F5F5F5";
+    private static final String LINK_COLOR = "0563C1";
+    // URI中允许直接出现的ASCII字符（RFC 3986 非保留字符和保留字符）
+    private static final String URI_CHARS =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-._~:/?#[]@!$&'()*+,;=";
+
+    private static final String TABLE_HEADER_BACKGROUND = "cccccc";
+    private static final String TABLE_BORDER_COLOR = "000000";
+    private static final int TABLE_BORDER_SIZE = 3;
+    private static final int TABLE_HEADER_FONT_SIZE = 12;
+
+    private static final int QUOTE_FONT_SIZE = 8;
+    // 0.5行（以1/100行为单位）
+    private static final int QUOTE_SPACING_LINES = 50;
+
+    // 列表每级缩进（twips）
+    private static final int LIST_INDENT = 420;
+    private static final int LIST_LEVELS = 9;
+    private static final String[] BULLET_SYMBOLS = {"•", "◦", "▪"};
+
+    // 各级标题字号（磅）
+    private static final int[] HEADING_FONT_SIZES = {22, 18, 16, 14, 12, 12};
+
+    private final XWPFDocument document;
+
+    // 本地上传图片的解析器，为null时图片以替代文本占位
+    private final LocalImageResolver imageResolver;
+
+    private XWPFNumbering numbering;
+    private BigInteger bulletNumId;
+    private BigInteger decimalAbstractNumId;
+
+    public NativeMarkdownRenderer(XWPFDocument document) {
+        this(document, null);
+    }
+
+    public NativeMarkdownRenderer(XWPFDocument document, LocalImageResolver imageResolver) {
+        this.document = document;
+        this.imageResolver = imageResolver;
+    }
+
+    /**
+     * 解析Markdown
+     *
+     * @param markdownContent Markdown内容
+     * @return 语法树根节点
+     */
+    public static Node parse(String markdownContent) {
+        return PARSER.parse(markdownContent);
+    }
+
+    /**
+     * 从字符流解析Markdown，按行增量读取，不需要先拼成完整字符串
+     *
+     * @param reader 字符流，由调用方关闭
+     * @return 语法树根节点
+     */
+    public static Node parse(Reader reader) throws IOException {
+        return PARSER.parseReader(reader);
+    }
+
+    /**
+     * 将语法树渲染到文档末尾
+     *
+     * @param root 语法树根节点
+     */
+    public void render(Node root) {
+        renderBlocks(root, BlockContext.ROOT);
+    }
+
+    // ==================== 块级元素 ====================
+
+    private void renderBlocks(Node parent, BlockContext context) {
+        boolean firstInItem = true;
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNext()) {
+            // 列表项中只有第一个段落带编号，其余块按列表层级缩进
+            BlockContext blockContext = firstInItem ? context : context.continuation();
+            ConversionCancellation.checkpoint();
+            renderBlock(node, blockContext);
+            firstInItem = false;
+        }
+    }
+
+    private void renderBlock(Node node, BlockContext context) {
+        if (node instanceof Heading heading) {
+            XWPFParagraph paragraph = newParagraph(context);
+            paragraph.setStyle(headingStyle(heading.getLevel()));
+            renderInlines(heading, paragraph, InlineStyle.PLAIN.withContext(context));
+        } else if (node instanceof Paragraph) {
+            XWPFParagraph paragraph = newParagraph(context);
+            renderInlines(node, paragraph, InlineStyle.PLAIN.withContext(context));
+        } else if (node instanceof BulletList) {
+            renderList(node, bulletNumId(), context);
+        } else if (node instanceof OrderedList orderedList) {
+            renderList(node, newOrderedNumId(orderedList.getStartNumber(), context.listLevel + 1), context);
+        } else if (node instanceof BlockQuote) {
+            renderBlocks(node, context.quote());
+        } else if (node instanceof FencedCodeBlock codeBlock) {
+            renderCode(codeBlock.getLiteral(), context);
+        } else if (node instanceof IndentedCodeBlock codeBlock) {
+            renderCode(codeBlock.getLiteral(), context);
+        } else if (node instanceof ThematicBreak) {
+            newParagraph(context).setBorderBottom(Borders.SINGLE);
+        } else if (node instanceof HtmlBlock htmlBlock) {
+            XWPFParagraph paragraph = newParagraph(context);
+            applyText(paragraph.createRun(), htmlBlock.getLiteral().trim(), InlineStyle.PLAIN.withContext(context));
+        } else if (node instanceof TableBlock) {
+            renderTable(node);
+        } else {
+            renderBlocks(node, context);
+        }
+    }
+
+    private void renderList(Node list, BigInteger numId, BlockContext context) {
+        BlockContext itemContext = context.listItem(numId);
+        for (Node item = list.getFirstChild(); item != null; item = item.getNext()) {
+            if (item instanceof ListItem) {
+                renderBlocks(item, itemContext);
+            }
+        }
+    }
+
+    private void renderCode(String literal, BlockContext context) {
+        XWPFParagraph paragraph = newParagraph(context);
+        CTShd shading = ppr(paragraph).addNewShd();
+        shading.setVal(STShd.CLEAR);
+        shading.setFill(CODE_BACKGROUND);
+
+        String code = literal.endsWith("\n") ? literal.substring(0, literal.length() - 1) : literal;
+        String[] lines = code.split("\n", -1);
+        for (int i = 0; i < lines.length; i++) {
+            XWPFRun run = paragraph.createRun();
+            run.setFontFamily(CODE_FONT);
+            run.setText(lines[i]);
+            if (i < lines.length - 1) {
+                run.addBreak();
+            }
+        }
+    }
+
+    private void renderTable(Node tableBlock) {
+        int rowCount = 0;
+        int columnCount = 0;
+        for (Node section = tableBlock.getFirstChild(); section != null; section = section.getNext()) {
+            for (Node row = section.getFirstChild(); row != null; row = row.getNext()) {
+                rowCount++;
+                int cells = 0;
+                for (Node cell = row.getFirstChild(); cell != null; cell = cell.getNext()) {
+                    cells++;
+                }
+                columnCount = Math.max(columnCount, cells);
+            }
+        }
+        if (rowCount == 0 || columnCount == 0) {
+            return;
+        }
+
+        XWPFTable table = document.createTable(rowCount, columnCount);
+        table.setWidthType(TableWidthType.PCT);
+        table.setWidth("100%");
+        XWPFTable.XWPFBorderType border = XWPFTable.XWPFBorderType.SINGLE;
+        table.setTopBorder(border, TABLE_BORDER_SIZE, 0, TABLE_BORDER_COLOR);
+        table.setBottomBorder(border, TABLE_BORDER_SIZE, 0, TABLE_BORDER_COLOR);
+        table.setLeftBorder(border, TABLE_BORDER_SIZE, 0, TABLE_BORDER_COLOR);
+        table.setRightBorder(border, TABLE_BORDER_SIZE, 0, TABLE_BORDER_COLOR);
+        table.setInsideHBorder(border, TABLE_BORDER_SIZE, 0, TABLE_BORDER_COLOR);
+        table.setInsideVBorder(border, TABLE_BORDER_SIZE, 0, TABLE_BORDER_COLOR);
+
+        int rowIndex = 0;
+        for (Node section = tableBlock.getFirstChild(); section != null; section = section.getNext()) {
+            for (Node row = section.getFirstChild(); row != null; row = row.getNext()) {
+                if (row instanceof TableRow) {
+                    ConversionCancellation.checkpoint();
+                    renderTableRow(table.getRow(rowIndex++), row);
+                }
+            }
+        }
+    }
+
+    private void renderTableRow(XWPFTableRow tableRow, Node row) {
+        int columnIndex = 0;
+        for (Node node = row.getFirstChild(); node != null; node = node.getNext()) {
+            if (!(node instanceof TableCell cell)) {
+                continue;
+            }
+            XWPFTableCell tableCell = tableRow.getCell(columnIndex++);
+            XWPFParagraph paragraph = tableCell.getParagraphs().get(0);
+            if (cell.getAlignment() != null) {
+                paragraph.setAlignment(switch (cell.getAlignment()) {
+                    case CENTER -> ParagraphAlignment.CENTER;
+                    case RIGHT -> ParagraphAlignment.RIGHT;
+                    default -> ParagraphAlignment.LEFT;
+                });
+            }
+            InlineStyle style = InlineStyle.PLAIN;
+            if (cell.isHeader()) {
+                tableCell.setColor(TABLE_HEADER_BACKGROUND);
+                tableCell.setVerticalAlignment(XWPFTableCell.XWPFVertAlign.CENTER);
+                style = InlineStyle.TABLE_HEADER;
+            }
+            renderInlines(cell, paragraph, style);
+        }
+    }
+
+    // ==================== 行内元素 ====================
+
+    private void renderInlines(Node parent, XWPFParagraph paragraph, InlineStyle style) {
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNext()) {
+            if (node instanceof Text text) {
+                applyText(newRun(paragraph, style), text.getLiteral(), style);
+            } else if (node instanceof Code code) {
+                XWPFRun run = newRun(paragraph, style);
+                run.setFontFamily(CODE_FONT);
+                applyText(run, code.getLiteral(), style);
+            } else if (node instanceof Emphasis) {
+                renderInlines(node, paragraph, style.italic());
+            } else if (node instanceof StrongEmphasis) {
+                renderInlines(node, paragraph, style.bold());
+            } else if (node instanceof Link link) {
+                renderInlines(node, paragraph, style.link(link.getDestination()));
+            } else if (node instanceof Image image) {
+                // 本地上传的图片直接嵌入，其余图片以替代文本占位
+                if (!addPicture(paragraph, image.getDestination())) {
+                    String alt = image.getFirstChild() instanceof Text text ? text.getLiteral() : image.getDestination();
+                    applyText(newRun(paragraph, style), "[" + alt + "]", style.italic());
+                }
+            } else if (node instanceof SoftLineBreak) {
+                applyText(newRun(paragraph, style), " ", style);
+            } else if (node instanceof HardLineBreak) {
+                newRun(paragraph, style).addBreak();
+            } else if (node instanceof HtmlInline html) {
+                applyText(newRun(paragraph, style), html.getLiteral(), style);
+            } else {
+                renderInlines(node, paragraph, style);
+            }
+        }
+    }
+
+    /**
+     * 嵌入本地图片，按像素尺寸（96dpi）设置显示大小
+     *
+     * @return 是否已嵌入
+     */
+    private boolean addPicture(XWPFParagraph paragraph, String url) {
+        LocalImageResolver.Image picture = imageResolver != null ? imageResolver.resolve(url) : null;
+        if (picture == null) {
+            return false;
+        }
+        try {
+            paragraph.createRun().addPicture(new ByteArrayInputStream(picture.getData()), picture.getPictureType(),
+                    picture.getFileName(), Units.pixelToEMU(picture.getWidth()), Units.pixelToEMU(picture.getHeight()));
+            return true;
+        } catch (InvalidFormatException | IOException e) {
+            return false;
+        }
+    }
+
+    private XWPFRun newRun(XWPFParagraph paragraph, InlineStyle style) {
+        if (style.linkUrl != null) {
+            String target = toHyperlinkTarget(style.linkUrl);
+            // 无法作为关系目标的地址只保留链接样式
+            XWPFRun run = target != null ? paragraph.createHyperlinkRun(target) : paragraph.createRun();
+            run.setColor(LINK_COLOR);
+            run.setUnderline(UnderlinePatterns.SINGLE);
+            return run;
+        }
+        return paragraph.createRun();
+    }
+
+    /**
+     * Markdown链接地址转为合法的URI（超链接关系目标必须是URI）
+     * 空格、| 等非法字符和不完整的 % 转义按UTF-8百分号编码，编码后仍不合法时返回null
+     */
+    static String toHyperlinkTarget(String url) {
+        if (isValidUri(url)) {
+            return url;
+        }
+        StringBuilder encoded = new StringBuilder(url.length() + 16);
+        for (int i = 0; i < url.length(); i++) {
+            char c = url.charAt(i);
+            boolean validEscape = c == '%' && i + 2 < url.length()
+                    && Character.digit(url.charAt(i + 1), 16) >= 0 && Character.digit(url.charAt(i + 2), 16) >= 0;
+            if (validEscape || (c < 0x80 && URI_CHARS.indexOf(c) >= 0) || (c >= 0x80 && !Character.isWhitespace(c)
+                    && !Character.isISOControl(c))) {
+                encoded.append(c);
+            } else {
+                for (byte b : String.valueOf(c).getBytes(StandardCharsets.UTF_8)) {
+                    encoded.append('%').append(String.format("%02X", b & 0xff));
+                }
+            }
+        }
+        String result = encoded.toString();
+        return isValidUri(result) ? result : null;
+    }
+
+    private static boolean isValidUri(String url) {
+        try {
+            new URI(url);
+            return true;
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    private void applyText(XWPFRun run, String text, InlineStyle style) {
+        run.setText(text);
+        if (style.bold) {
+            run.setBold(true);
+        }
+        if (style.italic) {
+            run.setItalic(true);
+        }
+        if (style.fontSize > 0) {
+            run.setFontSize(style.fontSize);
+        }
+        if (style.color != null && style.linkUrl == null) {
+            run.setColor(style.color);
+        }
+    }
+
+    // ==================== 段落、样式与编号 ====================
+
+    private XWPFParagraph newParagraph(BlockContext context) {
+        XWPFParagraph paragraph = document.createParagraph();
+        if (context.numId != null) {
+            paragraph.setNumID(context.numId);
+            paragraph.setNumILvl(BigInteger.valueOf(context.listLevel));
+        } else if (context.listLevel >= 0) {
+            paragraph.setIndentationLeft(LIST_INDENT * (context.listLevel + 1));
+        }
+        if (context.quote) {
+            paragraph.setSpacingBeforeLines(QUOTE_SPACING_LINES);
+            paragraph.setSpacingAfterLines(QUOTE_SPACING_LINES);
+        }
+        return paragraph;
+    }
+
+    private static CTPPr ppr(XWPFParagraph paragraph) {
+        return paragraph.getCTP().isSetPPr() ? paragraph.getCTP().getPPr() : paragraph.getCTP().addNewPPr();
+    }
+
+    /**
+     * 获取（必要时创建）标题样式，样式名使用Word内置名称，导航窗格可识别
+     */
+    private String headingStyle(int level) {
+        int normalized = Math.max(1, Math.min(6, level));
+        String styleId = "Heading" + normalized;
+        XWPFStyles styles = document.getStyles() != null ? document.getStyles() : document.createStyles();
+        if (!styles.styleExist(styleId)) {
+            CTStyle style = CTStyle.Factory.newInstance();
+            style.setStyleId(styleId);
+            style.setType(STStyleType.PARAGRAPH);
+            style.addNewName().setVal("heading " + normalized);
+            style.addNewNext().setVal("Normal");
+            style.addNewQFormat();
+            CTPPrGeneral ppr = style.addNewPPr();
+            ppr.addNewKeepNext();
+            ppr.addNewOutlineLvl().setVal(BigInteger.valueOf(normalized - 1));
+            ppr.addNewSpacing().setBefore(BigInteger.valueOf(240));
+            CTRPr rpr = style.addNewRPr();
+            rpr.addNewB();
+            BigInteger halfPoints = BigInteger.valueOf(HEADING_FONT_SIZES[normalized - 1] * 2L);
+            rpr.addNewSz().setVal(halfPoints);
+            rpr.addNewSzCs().setVal(halfPoints);
+            styles.addStyle(new XWPFStyle(style, styles));
+        }
+        return styleId;
+    }
+
+    private XWPFNumbering numbering() {
+        if (numbering == null) {
+            numbering = document.getNumbering() != null ? document.getNumbering() : document.createNumbering();
+        }
+        return numbering;
+    }
+
+    /**
+     * 无序列表共用一个编号实例
+     */
+    private BigInteger bulletNumId() {
+        if (bulletNumId == null) {
+            BigInteger abstractNumId = addAbstractNum(false);
+            bulletNumId = numbering().addNum(abstractNumId);
+        }
+        return bulletNumId;
+    }
+
+    /**
+     * 每个有序列表新建编号实例，并显式指定起始序号，避免与其他列表连续编号
+     */
+    private BigInteger newOrderedNumId(int startNumber, int level) {
+        if (decimalAbstractNumId == null) {
+            decimalAbstractNumId = addAbstractNum(true);
+        }
+        BigInteger numId = numbering().addNum(decimalAbstractNumId);
+        CTNumLvl override = numbering().getNum(numId).getCTNum().addNewLvlOverride();
+        override.setIlvl(BigInteger.valueOf(Math.max(0, Math.min(LIST_LEVELS - 1, level))));
+        override.addNewStartOverride().setVal(BigInteger.valueOf(Math.max(0, startNumber)));
+        return numId;
+    }
+
+    private BigInteger addAbstractNum(boolean ordered) {
+        XWPFNumbering target = numbering();
+        BigInteger abstractNumId = BigInteger.valueOf(target.getAbstractNums().size() + 1L);
+        while (target.getAbstractNum(abstractNumId) != null) {
+            abstractNumId = abstractNumId.add(BigInteger.ONE);
+        }
+
+        CTAbstractNum abstractNum = CTAbstractNum.Factory.newInstance();
+        abstractNum.setAbstractNumId(abstractNumId);
+        for (int i = 0; i < LIST_LEVELS; i++) {
+            CTLvl lvl = abstractNum.addNewLvl();
+            lvl.setIlvl(BigInteger.valueOf(i));
+            lvl.addNewStart().setVal(BigInteger.ONE);
+            if (ordered) {
+                lvl.addNewNumFmt().setVal(STNumberFormat.DECIMAL);
+                lvl.addNewLvlText().setVal("%" + (i + 1) + ".");
+            } else {
+                lvl.addNewNumFmt().setVal(STNumberFormat.BULLET);
+                lvl.addNewLvlText().setVal(BULLET_SYMBOLS[i % BULLET_SYMBOLS.length]);
+            }
+            lvl.addNewLvlJc().setVal(STJc.LEFT);
+            CTPPrGeneral ppr = lvl.addNewPPr();
+            ppr.addNewInd().setLeft(BigInteger.valueOf((long) LIST_INDENT * (i + 1)));
+            ppr.getInd().setHanging(BigInteger.valueOf(LIST_INDENT));
+        }
+        target.addAbstractNum(new XWPFAbstractNum(abstractNum, target));
+        return abstractNumId;
+    }
+
+    // ==================== 渲染上下文 ====================
+
+    /**
+     * 块级上下文：列表层级、当前编号（仅列表项第一个段落）、是否在引用中
+     */
+    private static final class BlockContext {
+
+        static final BlockContext ROOT = new BlockContext(-1, null, false);
+
+        final int listLevel;
+        final BigInteger numId;
+        final boolean quote;
+
+        private BlockContext(int listLevel, BigInteger numId, boolean quote) {
+            this.listLevel = listLevel;
+            this.numId = numId;
+            this.quote = quote;
+        }
+
+        BlockContext listItem(BigInteger numId) {
+            return new BlockContext(Math.min(LIST_LEVELS - 1, listLevel + 1), numId, quote);
+        }
+
+        BlockContext continuation() {
+            return numId == null ? this : new BlockContext(listLevel, null, quote);
+        }
+
+        BlockContext quote() {
+            return new BlockContext(listLevel, numId, true);
+        }
+    }
+
+    /**
+     * 行内样式，不可变，嵌套时派生新实例
+     */
+    private static final class InlineStyle {
+
+        static final InlineStyle PLAIN = new InlineStyle(false, false, 0, null, null);
+        static final InlineStyle TABLE_HEADER = new InlineStyle(true, false, TABLE_HEADER_FONT_SIZE, "000000", null);
+        static final InlineStyle QUOTE = new InlineStyle(false, true, QUOTE_FONT_SIZE, "000000", null);
+
+        final boolean bold;
+        final boolean italic;
+        final int fontSize;
+        final String color;
+        final String linkUrl;
+
+        private InlineStyle(boolean bold, boolean italic, int fontSize, String color, String linkUrl) {
+            this.bold = bold;
+            this.italic = italic;
+            this.fontSize = fontSize;
+            this.color = color;
+            this.linkUrl = linkUrl;
+        }
+
+        InlineStyle withContext(BlockContext context) {
+            return context.quote && this == PLAIN ? QUOTE : this;
+        }
+
+        InlineStyle bold() {
+            return new InlineStyle(true, italic, fontSize, color, linkUrl);
+        }
+
+        InlineStyle italic() {
+            return new InlineStyle(bold, true, fontSize, color, linkUrl);
+        }
+
+        InlineStyle link(String url) {
+            return new InlineStyle(bold, italic, fontSize, color, url);
+        }
+    }
+}
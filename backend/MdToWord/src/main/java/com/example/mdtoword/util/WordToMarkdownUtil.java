@@ -0,0 +1,753 @@
+package com.example.mdtoword.util;
+
+import com.example.mdtoword.converter.ConversionCancellation;
+import com.example.mdtoword.exception.BusinessException;
+import org.springframework.stereotype.Component;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Word转Markdown工具类（流式，内存占用与文档大小无关）
+ *
+ * 设计说明：
+ * 1. 不使用 XWPFDocument（会把整个文档的XML对象树载入内存），而是用 ZipFile 随机访问.docx中的部件，
+ *    用SAX解析 word/document.xml，每个段落、每个表格行解析完成后立即写出Markdown
+ * 2. 内存中只保留当前段落（或当前表格行）的内容，以及样式、编号、超链接等很小的映射表
+ * 3. 先解析 styles.xml、numbering.xml、document.xml.rels（与它们在ZIP中的顺序无关），用于识别标题级别、
+ *    有序/无序列表和超链接地址；缺少 styles.xml 时按样式ID和大纲级别推断标题
+ * 4. 支持：标题、段落、粗体、斜体、删除线、行内代码与代码块（等宽字体）、多级列表、表格、超链接、换行；
+ *    图片、文本框、批注、页眉页脚不输出，已删除的修订内容不输出
+ * 5. 禁用DTD和外部实体（防止XXE），每个ZIP条目解压后的大小受上限约束（防止ZIP炸弹）
+ * 6. 普通段落行首的 #、>、-、+、=、有序列表序号等会被Markdown解释为块级标记的字符加反斜杠转义
+ *
+ * 每个段落之前检查线程中断，转换被取消时及时停止
+ */
+@Component
+public class WordToMarkdownUtil {
+
+    private static final String DOCUMENT_PART = "word/document.xml";
+    private static final String STYLES_PART = "word/styles.xml";
+    private static final String NUMBERING_PART = "word/numbering.xml";
+    private static final String RELS_PART = "word/_rels/document.xml.rels";
+    // 正文之前需要读取的辅助部件
+    private static final List<String> AUXILIARY_PARTS = List.of(STYLES_PART, NUMBERING_PART, RELS_PART);
+
+    // 英文样式ID（Heading1）、本地化Word中的数字样式ID（1 表示 标题 1）
+    private static final Pattern HEADING_STYLE = Pattern.compile("(?i)(?:heading\\s*)?([1-9])");
+    private static final Pattern HEADING_NAME = Pattern.compile("(?i)heading\\s*([1-9])");
+    private static final Pattern MONOSPACE_FONT = Pattern.compile("(?i).*(consolas|courier|mono|menlo|monaco).*");
+    // 行首会被解释为标题、引用、列表、分隔线或Setext标题下划线的字符；有序列表只转义序号后的 . 或 )
+    private static final Pattern BLOCK_MARKER = Pattern.compile("(?m)^([ \\t]*)(?:([#>+=-])|(\\d{1,9})([.)])(?=[ \\t]|$))");
+
+    private static final SAXParserFactory PARSER_FACTORY = createParserFactory();
+
+    /**
+     * 将.docx文件转换为Markdown并写入字符流
+     *
+     * @param docxFile .docx文件（ZIP）
+     * @param writer Markdown输出，由调用方负责flush和关闭
+     * @param maxPartBytes 单个ZIP条目解压后的最大字节数
+     * @return 转换统计
+     * @throws BusinessException 不是有效的Word文档时抛出
+     */
+    public Result convert(Path docxFile, Writer writer, long maxPartBytes) throws IOException {
+        ZipFile zip;
+        try {
+            zip = new ZipFile(docxFile.toFile());
+        } catch (ZipException e) {
+            throw new BusinessException("不是有效的Word文档：" + e.getMessage());
+        }
+        try (zip) {
+            ZipEntry document = zip.getEntry(DOCUMENT_PART);
+            if (document == null) {
+                throw new BusinessException("不是有效的Word文档：缺少 " + DOCUMENT_PART);
+            }
+            DocumentParts parts = new DocumentParts();
+            for (String name : AUXILIARY_PARTS) {
+                ZipEntry entry = zip.getEntry(name);
+                if (entry != null) {
+                    parse(new LimitedInputStream(zip.getInputStream(entry), maxPartBytes), new PartsHandler(parts));
+                }
+            }
+            DocumentHandler handler = new DocumentHandler(parts, writer);
+            parse(new LimitedInputStream(zip.getInputStream(document), maxPartBytes), handler);
+            return handler.result;
+        }
+    }
+
+    private static void parse(InputStream input, DefaultHandler handler) throws IOException {
+        try {
+            SAXParser parser = PARSER_FACTORY.newSAXParser();
+            parser.parse(input, handler);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (SAXException e) {
+            throw new BusinessException("Word文档格式错误: " + e.getMessage());
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("XML解析器配置错误", e);
+        }
+    }
+
+    private static SAXParserFactory createParserFactory() {
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            return factory;
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IllegalStateException("XML解析器不支持安全配置", e);
+        }
+    }
+
+    /**
+     * 转换统计
+     */
+    public static final class Result {
+        private long paragraphs;
+        private long tables;
+        private long skippedImages;
+
+        public long getParagraphs() {
+            return paragraphs;
+        }
+
+        public long getTables() {
+            return tables;
+        }
+
+        public long getSkippedImages() {
+            return skippedImages;
+        }
+    }
+
+    /**
+     * 正文之前读到的辅助信息：样式ID对应的标题级别、列表编号格式、超链接地址
+     */
+    private static final class DocumentParts {
+        private final Map<String, Integer> headingStyles = new HashMap<>();
+        private boolean stylesLoaded;
+        private final Map<String, Map<String, String>> abstractNumFormats = new HashMap<>();
+        private final Map<String, String> numToAbstract = new HashMap<>();
+        private final Map<String, String> hyperlinks = new HashMap<>();
+
+        /**
+         * 段落样式对应的标题级别（1-6），不是标题时返回0
+         */
+        int headingLevel(String styleId) {
+            if (styleId == null) {
+                return 0;
+            }
+            if (stylesLoaded) {
+                return headingStyles.getOrDefault(styleId, 0);
+            }
+            if ("Title".equalsIgnoreCase(styleId)) {
+                return 1;
+            }
+            Matcher matcher = HEADING_STYLE.matcher(styleId);
+            return matcher.matches() ? Math.min(6, Integer.parseInt(matcher.group(1))) : 0;
+        }
+
+        /**
+         * 列表是否为有序列表，编号信息未知时按无序处理
+         */
+        boolean isOrdered(String numId, int level) {
+            Map<String, String> formats = abstractNumFormats.get(numToAbstract.get(numId));
+            String format = formats != null ? formats.get(String.valueOf(level)) : null;
+            return format != null && !"bullet".equals(format) && !"none".equals(format);
+        }
+    }
+
+    /**
+     * 解析 styles.xml、numbering.xml、document.xml.rels
+     */
+    private static final class PartsHandler extends DefaultHandler {
+        private final DocumentParts parts;
+        private String styleId;
+        private String styleName;
+        private Integer styleOutline;
+        private String abstractNumId;
+        private String level;
+        private String numId;
+
+        PartsHandler(DocumentParts parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "styles" -> parts.stylesLoaded = true;
+                case "style" -> {
+                    styleId = "paragraph".equals(attr(attributes, "type")) ? attr(attributes, "styleId") : null;
+                    styleName = null;
+                    styleOutline = null;
+                }
+                case "name" -> styleName = attr(attributes, "val");
+                case "outlineLvl" -> {
+                    if (styleId != null) {
+                        styleOutline = parseInt(attr(attributes, "val"));
+                    }
+                }
+                case "abstractNum" -> abstractNumId = attr(attributes, "abstractNumId");
+                case "lvl" -> level = attr(attributes, "ilvl");
+                case "numFmt" -> {
+                    if (abstractNumId != null && level != null) {
+                        parts.abstractNumFormats.computeIfAbsent(abstractNumId, k -> new HashMap<>())
+                                .put(level, attr(attributes, "val"));
+                    }
+                }
+                case "num" -> numId = attr(attributes, "numId");
+                case "abstractNumId" -> {
+                    if (numId != null) {
+                        parts.numToAbstract.put(numId, attr(attributes, "val"));
+                    }
+                }
+                case "Relationship" -> {
+                    if (Objects.toString(attributes.getValue("Type"), "").endsWith("/hyperlink")) {
+                        parts.hyperlinks.put(attributes.getValue("Id"), attributes.getValue("Target"));
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "style" -> {
+                    if (styleId != null) {
+                        int headingLevel = 0;
+                        Matcher matcher = styleName != null ? HEADING_NAME.matcher(styleName) : null;
+                        if (matcher != null && matcher.matches()) {
+                            headingLevel = Integer.parseInt(matcher.group(1));
+                        } else if ("Title".equalsIgnoreCase(styleName)) {
+                            headingLevel = 1;
+                        } else if (styleOutline != null && styleOutline < 9) {
+                            headingLevel = styleOutline + 1;
+                        }
+                        if (headingLevel > 0) {
+                            parts.headingStyles.put(styleId, Math.min(6, headingLevel));
+                        }
+                    }
+                    styleId = null;
+                }
+                case "abstractNum" -> abstractNumId = null;
+                case "lvl" -> level = null;
+                case "num" -> numId = null;
+                default -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * 解析 document.xml 并逐段写出Markdown
+     */
+    private static final class DocumentHandler extends DefaultHandler {
+        private final DocumentParts parts;
+        private final Writer writer;
+        private final Result result = new Result();
+
+        // 处于图片、文本框、已删除内容等不输出的子树中时记录其深度
+        private int depth;
+        private int skipDepth = -1;
+
+        // ===== 当前段落 =====
+        private final List<Segment> segments = new ArrayList<>();
+        private String paragraphStyle;
+        private Integer outlineLevel;
+        private String numId;
+        private int listLevel = -1;
+
+        // ===== 当前文字块 =====
+        private boolean inRunProperties;
+        private boolean bold;
+        private boolean italic;
+        private boolean strike;
+        private boolean monospace;
+        private boolean inText;
+        private String linkUrl;
+
+        // ===== 表格 =====
+        private int tableDepth;
+        private final List<String> row = new ArrayList<>();
+        private StringBuilder cell;
+        private int gridSpan;
+        private boolean continuedMerge;
+        private int tableColumns = -1;
+
+        // ===== 块间状态 =====
+        private boolean inCodeBlock;
+        private boolean inList;
+
+        DocumentHandler(DocumentParts parts, Writer writer) {
+            this.parts = parts;
+            this.writer = writer;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            depth++;
+            if (skipDepth >= 0) {
+                return;
+            }
+            switch (localName) {
+                case "drawing", "pict", "object" -> {
+                    result.skippedImages++;
+                    skipDepth = depth;
+                }
+                case "del", "txbxContent", "footnoteReference", "commentReference", "Fallback" -> skipDepth = depth;
+                case "p" -> {
+                    if (tableDepth == 0 || cell != null) {
+                        ConversionCancellation.checkpoint();
+                        startParagraph();
+                    }
+                }
+                case "pStyle" -> paragraphStyle = attr(attributes, "val");
+                case "outlineLvl" -> outlineLevel = parseInt(attr(attributes, "val"));
+                case "ilvl" -> listLevel = Math.max(0, Objects.requireNonNullElse(parseInt(attr(attributes, "val")), 0));
+                case "numId" -> {
+                    numId = attr(attributes, "val");
+                    // numId 为0表示取消编号
+                    if ("0".equals(numId)) {
+                        numId = null;
+                    } else if (listLevel < 0) {
+                        listLevel = 0;
+                    }
+                }
+                case "r" -> {
+                    bold = false;
+                    italic = false;
+                    strike = false;
+                    monospace = false;
+                }
+                case "rPr" -> inRunProperties = true;
+                case "b" -> bold = inRunProperties && isOn(attributes);
+                case "i" -> italic = inRunProperties && isOn(attributes);
+                case "strike", "dstrike" -> strike = inRunProperties && isOn(attributes);
+                case "rFonts" -> monospace = inRunProperties && isMonospace(attr(attributes, "ascii"));
+                case "t" -> inText = true;
+                case "tab" -> appendText(" ");
+                case "br", "cr" -> appendBreak();
+                case "noBreakHyphen" -> appendText("-");
+                case "hyperlink" -> {
+                    String id = attributes.getValue(
+                            "http://schemas.openxmlformats.org/officeDocument/2006/relationships", "id");
+                    linkUrl = id != null ? parts.hyperlinks.get(id) : null;
+                }
+                case "tbl" -> {
+                    tableDepth++;
+                    if (tableDepth == 1) {
+                        closeBlocks();
+                        tableColumns = -1;
+                        result.tables++;
+                    }
+                }
+                case "tr" -> {
+                    if (tableDepth == 1) {
+                        row.clear();
+                    }
+                }
+                case "tc" -> {
+                    if (tableDepth == 1) {
+                        cell = new StringBuilder();
+                        gridSpan = 1;
+                        continuedMerge = false;
+                    }
+                }
+                case "gridSpan" -> {
+                    if (tableDepth == 1) {
+                        gridSpan = Math.max(1, Objects.requireNonNullElse(parseInt(attr(attributes, "val")), 1));
+                    }
+                }
+                case "vMerge" -> {
+                    // 纵向合并的后续单元格没有 val 或 val=continue，输出为空
+                    String val = attr(attributes, "val");
+                    if (tableDepth == 1 && (val == null || "continue".equals(val))) {
+                        continuedMerge = true;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (skipDepth >= 0) {
+                if (depth == skipDepth) {
+                    skipDepth = -1;
+                }
+                depth--;
+                return;
+            }
+            depth--;
+            switch (localName) {
+                case "p" -> {
+                    if (tableDepth == 0 || cell != null) {
+                        endParagraph();
+                    }
+                }
+                case "rPr" -> inRunProperties = false;
+                case "t" -> inText = false;
+                case "hyperlink" -> linkUrl = null;
+                case "tc" -> {
+                    if (tableDepth == 1 && cell != null) {
+                        row.add(continuedMerge ? "" : cell.toString());
+                        for (int i = 1; i < gridSpan; i++) {
+                            row.add("");
+                        }
+                        cell = null;
+                    }
+                }
+                case "tr" -> {
+                    if (tableDepth == 1) {
+                        writeRow();
+                    }
+                }
+                case "tbl" -> {
+                    tableDepth--;
+                    if (tableDepth == 0) {
+                        write("\n");
+                    }
+                }
+                case "body" -> closeBlocks();
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inText && skipDepth < 0) {
+                appendText(new String(ch, start, length));
+            }
+        }
+
+        @Override
+        public void endDocument() {
+            closeBlocks();
+        }
+
+        private void startParagraph() {
+            segments.clear();
+            paragraphStyle = null;
+            outlineLevel = null;
+            numId = null;
+            listLevel = -1;
+        }
+
+        private void endParagraph() {
+            result.paragraphs++;
+            if (tableDepth > 0) {
+                String text = renderInline(true);
+                if (!text.isEmpty()) {
+                    cell.append(cell.length() > 0 ? "<br>" : "").append(text);
+                }
+                return;
+            }
+
+            if (isCodeParagraph()) {
+                if (inList) {
+                    write("\n");
+                    inList = false;
+                }
+                if (!inCodeBlock) {
+                    write("```\n");
+                    inCodeBlock = true;
+                }
+                StringBuilder code = new StringBuilder();
+                for (Segment segment : segments) {
+                    code.append(segment.lineBreak ? "\n" : segment.text);
+                }
+                write(code.append('\n').toString());
+                return;
+            }
+            closeCodeBlock();
+
+            String text = escapeLineStarts(renderInline(false));
+            int headingLevel = parts.headingLevel(paragraphStyle);
+            if (headingLevel == 0 && outlineLevel != null && outlineLevel < 9) {
+                headingLevel = Math.min(6, outlineLevel + 1);
+            }
+            if (text.isBlank()) {
+                return;
+            }
+            if (headingLevel > 0) {
+                closeList();
+                write("#".repeat(headingLevel) + " " + text + "\n\n");
+            } else if (numId != null && listLevel >= 0) {
+                String marker = parts.isOrdered(numId, listLevel) ? "1. " : "- ";
+                write("   ".repeat(listLevel) + marker + text + "\n");
+                inList = true;
+            } else {
+                closeList();
+                write(text + "\n\n");
+            }
+        }
+
+        /**
+         * 段落所有文字都使用等宽字体时视为代码
+         */
+        private boolean isCodeParagraph() {
+            boolean hasText = false;
+            for (Segment segment : segments) {
+                if (segment.lineBreak) {
+                    continue;
+                }
+                if (!segment.monospace) {
+                    return false;
+                }
+                hasText |= !segment.text.isEmpty();
+            }
+            return hasText && numId == null;
+        }
+
+        /**
+         * 合并格式相同的相邻文字块，输出行内Markdown
+         */
+        private String renderInline(boolean inTable) {
+            StringBuilder out = new StringBuilder();
+            int i = 0;
+            while (i < segments.size()) {
+                Segment first = segments.get(i);
+                if (first.lineBreak) {
+                    out.append(inTable ? "<br>" : "  \n");
+                    i++;
+                    continue;
+                }
+                StringBuilder text = new StringBuilder();
+                int j = i;
+                while (j < segments.size() && !segments.get(j).lineBreak && segments.get(j).sameFormat(first)) {
+                    text.append(segments.get(j).text);
+                    j++;
+                }
+                out.append(decorate(text.toString(), first, inTable));
+                i = j;
+            }
+            return out.toString().strip();
+        }
+
+        private static String decorate(String raw, Segment format, boolean inTable) {
+            if (raw.isBlank()) {
+                return raw;
+            }
+            // 标记符号不能紧贴空白，空白放在标记外
+            String leading = raw.substring(0, raw.length() - raw.stripLeading().length());
+            String trailing = raw.substring(raw.stripTrailing().length());
+            String core = raw.strip();
+            String text;
+            if (format.monospace) {
+                String fence = core.contains("`") ? "``" : "`";
+                text = fence + core + fence;
+            } else {
+                text = escape(core, inTable);
+                if (format.bold) {
+                    text = "**" + text + "**";
+                }
+                if (format.italic) {
+                    text = "*" + text + "*";
+                }
+                if (format.strike) {
+                    text = "~~" + text + "~~";
+                }
+            }
+            if (format.link != null) {
+                text = "[" + text + "](" + format.link.replace(" ", "%20").replace(")", "%29") + ")";
+            }
+            return leading + text + trailing;
+        }
+
+        /**
+         * 转义每行行首的块级标记，避免普通文字被解析成标题、引用或列表
+         * 行内格式的标记符号（**、[、`）不会匹配，只处理原样输出的文字
+         */
+        private static String escapeLineStarts(String text) {
+            Matcher matcher = BLOCK_MARKER.matcher(text);
+            if (!matcher.find()) {
+                return text;
+            }
+            StringBuilder out = new StringBuilder(text.length() + 4);
+            do {
+                String replacement = matcher.group(2) != null
+                        ? matcher.group(1) + "\\" + matcher.group(2)
+                        : matcher.group(1) + matcher.group(3) + "\\" + matcher.group(4);
+                matcher.appendReplacement(out, Matcher.quoteReplacement(replacement));
+            } while (matcher.find());
+            matcher.appendTail(out);
+            return out.toString();
+        }
+
+        private static String escape(String text, boolean inTable) {
+            StringBuilder out = new StringBuilder(text.length() + 8);
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '\\' || c == '*' || c == '_' || c == '`' || c == '[' || c == ']'
+                        || (c == '|' && inTable)) {
+                    out.append('\\');
+                }
+                out.append(c);
+            }
+            return out.toString();
+        }
+
+        private void appendText(String text) {
+            if (tableDepth > 0 && cell == null) {
+                return;
+            }
+            segments.add(new Segment(text, bold, italic, strike, monospace, linkUrl, false));
+        }
+
+        private void appendBreak() {
+            segments.add(new Segment("", false, false, false, false, null, true));
+        }
+
+        private void writeRow() {
+            if (row.isEmpty()) {
+                return;
+            }
+            if (tableColumns < 0) {
+                // 第一行作为表头
+                tableColumns = row.size();
+                writeCells(row);
+                List<String> separator = new ArrayList<>(tableColumns);
+                for (int i = 0; i < tableColumns; i++) {
+                    separator.add("---");
+                }
+                writeCells(separator);
+            } else {
+                // 列数与表头对齐，多出的单元格合并到最后一列
+                List<String> cells = new ArrayList<>(row.subList(0, Math.min(row.size(), tableColumns)));
+                if (row.size() > tableColumns) {
+                    cells.set(tableColumns - 1, String.join(" ", row.subList(tableColumns - 1, row.size())).strip());
+                }
+                while (cells.size() < tableColumns) {
+                    cells.add("");
+                }
+                writeCells(cells);
+            }
+        }
+
+        private void writeCells(List<String> cells) {
+            StringBuilder line = new StringBuilder("|");
+            for (String value : cells) {
+                line.append(' ').append(value).append(" |");
+            }
+            write(line.append('\n').toString());
+        }
+
+        private void closeBlocks() {
+            closeCodeBlock();
+            closeList();
+        }
+
+        private void closeCodeBlock() {
+            if (inCodeBlock) {
+                write("```\n\n");
+                inCodeBlock = false;
+            }
+        }
+
+        private void closeList() {
+            if (inList) {
+                write("\n");
+                inList = false;
+            }
+        }
+
+        private void write(String text) {
+            try {
+                writer.write(text);
+            } catch (IOException e) {
+                // SAX回调不能抛出IOException，在 parse 中还原
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static boolean isOn(Attributes attributes) {
+            String val = attr(attributes, "val");
+            return val == null || !("0".equals(val) || "false".equals(val) || "off".equals(val));
+        }
+
+        private static boolean isMonospace(String font) {
+            return font != null && MONOSPACE_FONT.matcher(font).matches();
+        }
+    }
+
+    /**
+     * 一段格式相同的文字
+     */
+    private static final class Segment {
+        private final String text;
+        private final boolean bold;
+        private final boolean italic;
+        private final boolean strike;
+        private final boolean monospace;
+        private final String link;
+        private final boolean lineBreak;
+
+        Segment(String text, boolean bold, boolean italic, boolean strike, boolean monospace,
+                String link, boolean lineBreak) {
+            this.text = text;
+            this.bold = bold;
+            this.italic = italic;
+            this.strike = strike;
+            this.monospace = monospace;
+            this.link = link;
+            this.lineBreak = lineBreak;
+        }
+
+        boolean sameFormat(Segment other) {
+            return bold == other.bold && italic == other.italic && strike == other.strike
+                    && monospace == other.monospace && Objects.equals(link, other.link);
+        }
+    }
+
+    /**
+     * 读取 w: 命名空间属性（不同生成工具的前缀可能不同，按本地名称匹配）
+     */
+    private static String attr(Attributes attributes, String localName) {
+        for (int i = 0; i < attributes.getLength(); i++) {
+            if (localName.equals(attributes.getLocalName(i))) {
+                return attributes.getValue(i);
+            }
+        }
+        return null;
+    }
+
+    private static Integer parseInt(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
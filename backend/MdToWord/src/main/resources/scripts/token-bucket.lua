@@ -0,0 +1,49 @@
+-- 令牌桶限流（原子执行，多节点共享同一个桶）
+-- KEYS[1]  桶的key（Hash：tokens 剩余令牌数，ts 上次补充时间毫秒）
+-- ARGV[1]  桶容量
+-- ARGV[2]  每秒补充的令牌数
+-- ARGV[3]  本次请求消耗的令牌数
+-- ARGV[4]  为1时无条件扣减（读完请求体后补扣差额），令牌数可以变为负数，由后续补充抵消
+-- 返回 {是否允许(1/0), 剩余令牌数, 需等待毫秒数, 桶补满所需毫秒数}
+
+-- Redis 5 之前需要显式开启命令复制，才能在 TIME 之后执行写命令
+if redis.replicate_commands then
+    redis.replicate_commands()
+end
+
+local capacity = tonumber(ARGV[1])
+local rate = tonumber(ARGV[2])
+local cost = tonumber(ARGV[3])
+local force = ARGV[4] == '1'
+
+-- 使用Redis服务器时间，各节点时钟不一致不影响计算
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+local tokens = tonumber(bucket[1])
+local ts = tonumber(bucket[2])
+if tokens == nil or ts == nil then
+    tokens = capacity
+    ts = now
+end
+if now > ts then
+    tokens = math.min(capacity, tokens + (now - ts) * rate / 1000)
+    ts = now
+end
+
+local allowed = 0
+local wait = 0
+if force or tokens >= cost then
+    tokens = tokens - cost
+    allowed = 1
+else
+    wait = math.ceil((cost - tokens) * 1000 / rate)
+end
+
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(ts))
+-- 桶补满后即可删除，与新建的桶等价
+local full = math.ceil((capacity - tokens) * 1000 / rate)
+redis.call('PEXPIRE', KEYS[1], full + 1000)
+
+return {allowed, math.floor(tokens), wait, full}
@@ -0,0 +1,50 @@
+package com.example.mdtoword.converter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ConversionRateLimiterTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testUnknownLengthIsChargedModestlyAndSettledAfterRead() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ObjectProvider<StringRedisTemplate> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(redisTemplate);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 43L, 0L, 17000L));
+        ConverterMetrics metrics = new ConverterMetrics();
+        ConversionRateLimiter limiter = new ConversionRateLimiter(provider, metrics);
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "capacity", 60L);
+        ReflectionTestUtils.setField(limiter, "refillPerSecond", 1.0);
+        ReflectionTestUtils.setField(limiter, "bytesPerToken", 65536L);
+        ReflectionTestUtils.setField(limiter, "unknownLengthBytes", 1048576L);
+        ReflectionTestUtils.setField(limiter, "keyPrefix", "ratelimit:converter");
+
+        ConversionRateLimiter.Decision decision = limiter.acquire("user:alice", -1);
+
+        // 长度未知时只预扣1MB对应的令牌，不会扣空整个桶
+        assertEquals(17, decision.getCost());
+        assertTrue(decision.isLengthUnknown());
+
+        // 实际收到2MB，无条件补扣差额
+        limiter.settle(decision, 2 * 1048576L);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("ratelimit:converter:user:alice")),
+                eq("60"), eq("1.0"), eq("16"), eq("1"));
+        assertEquals(16, metrics.get("ratelimit.settled-tokens"));
+
+        // 实际大小不超过预扣部分时不再访问Redis
+        limiter.settle(decision, 1024);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+}
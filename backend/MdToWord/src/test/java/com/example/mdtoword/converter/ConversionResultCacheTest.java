@@ -0,0 +1,53 @@
+package com.example.mdtoword.converter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversionResultCacheTest {
+
+    @Test
+    void testHitAndMissAreCounted() {
+        ConverterMetrics metrics = new ConverterMetrics();
+        ConversionResultCache cache = new ConversionResultCache("cache.test", 100, metrics);
+
+        assertNull(cache.get("a"));
+        cache.put("a", new byte[10]);
+        assertNotNull(cache.get("a"));
+
+        assertEquals(1, metrics.get("cache.test.hit"));
+        assertEquals(1, metrics.get("cache.test.miss"));
+        assertEquals(10L, cache.getCurrentBytes());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedByBytes() {
+        ConverterMetrics metrics = new ConverterMetrics();
+        ConversionResultCache cache = new ConversionResultCache("cache.test", 100, metrics);
+
+        cache.put("a", new byte[40]);
+        cache.put("b", new byte[40]);
+        // 访问a，使b成为最久未访问的条目
+        cache.get("a");
+        cache.put("c", new byte[40]);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(80L, cache.getCurrentBytes());
+        assertEquals(1, metrics.get("cache.test.eviction"));
+    }
+
+    @Test
+    void testOversizedEntryIsNotCached() {
+        ConverterMetrics metrics = new ConverterMetrics();
+        ConversionResultCache cache = new ConversionResultCache("cache.test", 100, metrics);
+
+        cache.put("a", new byte[30]);
+        cache.put("big", new byte[101]);
+
+        assertNull(cache.get("big"));
+        assertNotNull(cache.get("a"));
+        assertEquals(30L, cache.getCurrentBytes());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.mdtoword.converter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiskConversionCacheTest {
+
+    private static final String OLD_KEY = "a".repeat(64);
+    private static final String NEW_KEY = "b".repeat(64);
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    void testEvictsLeastRecentlyAccessedFile() throws Exception {
+        DiskConversionCache cache = newCacheWithOldEntry();
+
+        cache.put(NEW_KEY, new byte[600 * 1024]);
+
+        assertNull(cache.lookup(OLD_KEY));
+        assertNotNull(cache.lookup(NEW_KEY));
+    }
+
+    @Test
+    void testKeepsRecentlyServedFileDuringEviction() throws Exception {
+        DiskConversionCache cache = newCacheWithOldEntry();
+        Path served = cache.lookup(OLD_KEY);
+
+        // 命中后、发送前写入新结果触发淘汰
+        cache.put(NEW_KEY, new byte[600 * 1024]);
+
+        assertTrue(Files.exists(served));
+        assertEquals(served, cache.lookup(OLD_KEY));
+    }
+
+    private DiskConversionCache newCacheWithOldEntry() throws Exception {
+        Path file = cacheDir.resolve("aa").resolve("aa").resolve(OLD_KEY + ".docx");
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[600 * 1024]);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - 3_600_000));
+
+        DiskConversionCache cache = new DiskConversionCache(new ConverterMetrics());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "cacheDir", cacheDir.toString());
+        ReflectionTestUtils.setField(cache, "maxSizeMb", 1L);
+        cache.init();
+        return cache;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.mdtoword.converter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramTest {
+
+    @Test
+    void testPercentilesWithinBucketError() {
+        Histogram histogram = new Histogram(1);
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        Map<String, Number> snapshot = histogram.snapshot();
+
+        assertEquals(1000L, snapshot.get("count"));
+        assertEquals(1000.0, snapshot.get("max").doubleValue());
+        // 分桶相对误差不超过12.5%
+        assertEquals(500, snapshot.get("p50").doubleValue(), 500 * 0.125);
+        assertEquals(990, snapshot.get("p99").doubleValue(), 990 * 0.125);
+        assertTrue(snapshot.get("p99").doubleValue() >= 990);
+    }
+
+    @Test
+    void testRotateDropsOldWindow() {
+        Histogram histogram = new Histogram(1);
+        histogram.record(1_000_000);
+        histogram.rotate();
+        histogram.record(10);
+
+        // 上一周期的数据仍在窗口内
+        assertEquals(2L, histogram.snapshot().get("window-count"));
+
+        histogram.rotate();
+        histogram.record(10);
+        Map<String, Number> snapshot = histogram.snapshot();
+        assertEquals(2L, snapshot.get("window-count"));
+        assertEquals(10.0, snapshot.get("p99").doubleValue(), 2);
+        // 累计次数不随轮换清零
+        assertEquals(3L, snapshot.get("count"));
+    }
+
+    @Test
+    void testBucketBoundsAreContiguous() {
+        for (int i = 1; i < 400; i++) {
+            long lower = Histogram.bucketUpperBound(i - 1) + 1;
+            assertEquals(i, Histogram.bucketIndex(lower));
+            assertEquals(i, Histogram.bucketIndex(Histogram.bucketUpperBound(i)));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.mdtoword.converter;
+
+import org.apache.poi.xwpf.usermodel.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalImageResolverTest {
+
+    @TempDir
+    Path uploads;
+
+    private ConverterMetrics metrics;
+    private LocalImageResolver resolver;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        metrics = new ConverterMetrics();
+        resolver = new LocalImageResolver(new ConversionResultCache("cache.image", 1024 * 1024, metrics), metrics);
+        ReflectionTestUtils.setField(resolver, "rtePath", uploads.resolve("rte").toString());
+        ReflectionTestUtils.setField(resolver, "avatarPath", uploads.resolve("avatars").toString());
+        ReflectionTestUtils.setField(resolver, "maxWidthPx", 100);
+        ReflectionTestUtils.setField(resolver, "maxPixels", 10_000_000L);
+        Files.createDirectories(uploads.resolve("rte/2025/01"));
+        Files.createDirectories(uploads.resolve("avatars"));
+    }
+
+    @Test
+    void testDownscalesWideImageAndCachesResult() throws Exception {
+        ImageIO.write(new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB), "jpeg",
+                uploads.resolve("rte/2025/01/wide.jpg").toFile());
+
+        LocalImageResolver.Image image = resolver.resolve("/api/file/rte/2025/01/wide.jpg");
+        LocalImageResolver.Image again = resolver.resolve("http://localhost:8080/api/file/rte/2025/01/wide.jpg");
+
+        assertEquals(100, image.getWidth());
+        assertEquals(50, image.getHeight());
+        assertEquals(Document.PICTURE_TYPE_JPEG, image.getPictureType());
+        assertSame(image.getData(), again.getData());
+        assertEquals(1, metrics.get("image.downscaled"));
+        assertEquals(1, metrics.get("cache.image.hit"));
+    }
+
+    @Test
+    void testKeepsNarrowImageBytes() throws Exception {
+        Path file = uploads.resolve("avatars/small.png");
+        ImageIO.write(new BufferedImage(40, 30, BufferedImage.TYPE_INT_ARGB), "png", file.toFile());
+
+        LocalImageResolver.Image image = resolver.resolve("/api/file/avatar/small.png");
+
+        assertArrayEquals(Files.readAllBytes(file), image.getData());
+        assertEquals(Document.PICTURE_TYPE_PNG, image.getPictureType());
+        assertEquals(0, metrics.get("image.downscaled"));
+    }
+
+    @Test
+    void testRejectsPathsOutsideUploadDirectories() throws Exception {
+        Files.writeString(uploads.resolve("secret.png"), "x");
+
+        assertNull(resolver.toLocalPath("/api/file/rte/../secret.png"));
+        assertNull(resolver.toLocalPath("/api/file/avatar/%2e%2e/secret.png"));
+        assertNull(resolver.toLocalPath("https://example.com/image.png"));
+        assertNull(resolver.resolve("/api/file/rte/2025/01/missing.png"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.mdtoword.converter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarkdownComplexityTest {
+
+    @Test
+    void testCountsTablesImagesAndLines() {
+        String markdown = "# 标题\n\n"
+                + "| a | b | c |\n"
+                + "|---|:-:|---|\n"
+                + "| 1 | 2 | 3 |\n"
+                + "| 4 | 5 | 6 |\n\n"
+                + "![图](a.png) 和 ![图](b.png)\n"
+                + "最后一行没有换行";
+
+        MarkdownComplexity complexity = MarkdownComplexity.of(markdown);
+
+        assertEquals(9, complexity.getLines());
+        assertEquals(4, complexity.getTableRows());
+        assertEquals(12, complexity.getTableCells());
+        assertEquals(2, complexity.getImages());
+        assertEquals(markdown.length(), complexity.getChars());
+    }
+
+    @Test
+    void testNestingDepthCountsQuotesAndListIndentation() {
+        String markdown = "- 一级\n"
+                + "  - 二级\n"
+                + "    - 三级\n"
+                + "> > - 引用中的列表\n";
+
+        MarkdownComplexity complexity = MarkdownComplexity.of(markdown);
+
+        assertEquals(3, complexity.getMaxNestingDepth());
+    }
+
+    @Test
+    void testIgnoresTablesAndImagesInsideCodeFence() {
+        String markdown = "```\n| a | b |\n![x](y)\n```\n正文\n";
+
+        MarkdownComplexity complexity = MarkdownComplexity.of(markdown);
+
+        assertEquals(0, complexity.getTableRows());
+        assertEquals(0, complexity.getImages());
+        assertEquals(5, complexity.getLines());
+    }
+
+    @Test
+    void testIncrementalFeedMatchesFullScan() {
+        String markdown = "| a | b |\n|---|---|\n| 1 | 2 |\n\n- x\n  - y\n";
+        MarkdownComplexity incremental = new MarkdownComplexity();
+        char[] chars = markdown.toCharArray();
+        for (int i = 0; i < chars.length; i += 3) {
+            incremental.accept(chars, i, Math.min(3, chars.length - i));
+        }
+        incremental.finish();
+
+        MarkdownComplexity full = MarkdownComplexity.of(markdown);
+
+        assertEquals(full.toString(), incremental.toString());
+    }
+
+    @Test
+    void testLongestLineIncludesUnfinishedLine() {
+        MarkdownComplexity complexity = new MarkdownComplexity();
+        char[] chars = "短行\n这一行还没有结束".toCharArray();
+        complexity.accept(chars, 0, chars.length);
+
+        assertEquals(8, complexity.getLongestLine());
+    }
+}
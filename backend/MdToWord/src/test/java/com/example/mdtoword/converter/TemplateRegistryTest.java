@@ -0,0 +1,52 @@
+package com.example.mdtoword.converter;
+
+import com.example.mdtoword.exception.BusinessException;
+import com.example.mdtoword.util.MarkdownToWordUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemplateRegistryTest {
+
+    @TempDir
+    Path templateDir;
+
+    private MarkdownToWordUtil markdownToWordUtil;
+    private byte[] templateBytes;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        markdownToWordUtil = new MarkdownToWordUtil();
+        markdownToWordUtil.init();
+        templateBytes = markdownToWordUtil.getDefaultTemplate().getBytes();
+    }
+
+    @Test
+    void testRejectsUploadFromAnotherUserAfterRestart() throws Exception {
+        TemplateRegistry registry = newRegistry();
+        registry.upload("team-a", templateBytes, "alice");
+        assertEquals(2, registry.upload("team-a", templateBytes, "alice").getVersion());
+
+        // 重启后所有者记录仍然有效
+        TemplateRegistry restarted = newRegistry();
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> restarted.upload("team-a", templateBytes, "bob"));
+        assertEquals(403, e.getCode());
+        assertEquals(2, restarted.resolve("team-a").getVersion());
+        assertEquals(3, restarted.upload("team-a", templateBytes, "alice").getVersion());
+    }
+
+    private TemplateRegistry newRegistry() throws Exception {
+        TemplateRegistry registry = new TemplateRegistry(markdownToWordUtil, new ConverterMetrics());
+        ReflectionTestUtils.setField(registry, "templateDir", templateDir.toString());
+        ReflectionTestUtils.setField(registry, "maxCached", 16);
+        ReflectionTestUtils.setField(registry, "maxBytes", 10L * 1024 * 1024);
+        registry.init();
+        return registry;
+    }
+}
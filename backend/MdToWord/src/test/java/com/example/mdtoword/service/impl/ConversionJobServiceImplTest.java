@@ -0,0 +1,50 @@
+package com.example.mdtoword.service.impl;
+
+import com.example.mdtoword.converter.ConverterMetrics;
+import com.example.mdtoword.pojo.ConversionJob;
+import com.example.mdtoword.service.ConverterService;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ConversionJobServiceImplTest {
+
+    @Test
+    void testEvictsOldestResultWhenRetainedBytesExceedLimit() throws Exception {
+        ConverterService converterService = mock(ConverterService.class);
+        when(converterService.convertMarkdownToWord(anyString())).thenReturn(new byte[600 * 1024]);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.initialize();
+        ConverterMetrics metrics = new ConverterMetrics();
+        ConversionJobServiceImpl service = new ConversionJobServiceImpl(converterService, executor, metrics);
+        ReflectionTestUtils.setField(service, "maxRetainedMb", 1L);
+        try {
+            ConversionJob first = service.submit("# 第一篇", "alice");
+            awaitFinished(first);
+            ConversionJob second = service.submit("# 第二篇", "alice");
+            awaitFinished(second);
+
+            // 两个结果合计1200KB，超过1MB时淘汰先完成的任务
+            assertNull(service.getJob(first.getId(), "alice"));
+            assertNotNull(service.getJob(second.getId(), "alice").getResult());
+            assertEquals(600L * 1024, metrics.snapshot().get("job.retained-bytes"));
+            assertEquals(1, metrics.get("job.evicted"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void awaitFinished(ConversionJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(ConversionJob.Status.DONE, job.getStatus());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.mdtoword.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarkdownSectionSplitterTest {
+
+    @Test
+    void testSplitsAtTopLevelHeadingsAndKeepsContent() {
+        String markdown = "前言\n\n# 第一章\n内容1\n\n# 第二章\n内容2\n\n# 第三章\n内容3\n";
+
+        List<String> sections = MarkdownSectionSplitter.split(markdown, 10);
+
+        assertEquals(3, sections.size());
+        assertTrue(sections.get(0).startsWith("前言"));
+        assertTrue(sections.get(1).startsWith("# 第二章"));
+        assertEquals(markdown, String.join("", sections));
+    }
+
+    @Test
+    void testIgnoresHashInsideCodeBlock() {
+        String markdown = "## A\n```\n## 不是标题\n```\n## B\n内容\n";
+
+        List<String> sections = MarkdownSectionSplitter.split(markdown, 10);
+
+        assertEquals(2, sections.size());
+        assertTrue(sections.get(1).startsWith("## B"));
+    }
+
+    @Test
+    void testGroupsSmallSectionsToTargetCount() {
+        StringBuilder markdown = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            markdown.append("# 标题").append(i).append("\n段落内容\n\n");
+        }
+
+        List<String> sections = MarkdownSectionSplitter.split(markdown.toString(), 4);
+
+        assertEquals(4, sections.size());
+        assertEquals(markdown.toString(), String.join("", sections));
+    }
+
+    @Test
+    void testReturnsWholeDocumentWithoutHeadings() {
+        String markdown = "只有段落\n\n- 列表\n";
+
+        assertEquals(List.of(markdown), MarkdownSectionSplitter.split(markdown, 4));
+    }
+
+    @Test
+    void testDoesNotSplitDocumentWithLinkReferenceDefinitions() {
+        // 定义在第一章，引用在第二章；分段后第二章的 [官网][site] 会变成普通文字
+        String markdown = "# 第一章\n见 [官网][site]\n\n> [site]: https://example.com\n\n# 第二章\n同上 [官网][site]\n";
+
+        assertEquals(List.of(markdown), MarkdownSectionSplitter.split(markdown, 4));
+    }
+}
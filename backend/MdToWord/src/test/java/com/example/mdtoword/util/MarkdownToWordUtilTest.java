@@ -0,0 +1,52 @@
+package com.example.mdtoword.util;
+
+import com.example.mdtoword.converter.WordTemplate;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarkdownToWordUtilTest {
+
+    @Test
+    void testParallelPathKeepsTemplateTextAroundTagOnce() throws Exception {
+        MarkdownToWordUtil util = new MarkdownToWordUtil();
+        util.init();
+        WordTemplate template = new WordTemplate("report", 1, templateWithCoverAndDisclaimer(), 0);
+        util.validateTemplate(template.getBytes());
+        String markdown = "# 第一章\n内容1\n\n# 第二章\n内容2\n\n# 第三章\n内容3\n";
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        byte[] docx;
+        try {
+            docx = util.convertMarkdownToWordBytesParallel(markdown, template, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        try (XWPFDocument document = new XWPFDocument(new ByteArrayInputStream(docx))) {
+            assertEquals(1, countParagraphs(document, "封面标题"));
+            assertEquals(1, countParagraphs(document, "免责声明"));
+        }
+    }
+
+    private static byte[] templateWithCoverAndDisclaimer() throws Exception {
+        try (XWPFDocument document = new XWPFDocument()) {
+            document.createParagraph().createRun().setText("封面标题");
+            document.createParagraph().createRun().setText("{{md}}");
+            document.createParagraph().createRun().setText("免责声明");
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            document.write(output);
+            return output.toByteArray();
+        }
+    }
+
+    private static long countParagraphs(XWPFDocument document, String text) {
+        return document.getParagraphs().stream().map(XWPFParagraph::getText).filter(text::equals).count();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.mdtoword.util;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFHyperlink;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeMarkdownRendererTest {
+
+    @Test
+    void testRendersHeadingsParagraphsAndTables() throws Exception {
+        try (XWPFDocument document = render("# 标题\n\n正文 **粗体**\n\n| A | B |\n|---|---|\n| 1 | 2 |\n")) {
+            List<XWPFParagraph> paragraphs = document.getParagraphs();
+            assertEquals("标题", paragraphs.get(0).getText());
+            assertTrue(paragraphs.stream().anyMatch(p -> "正文 粗体".equals(p.getText())));
+
+            XWPFTable table = document.getTables().get(0);
+            assertEquals(2, table.getNumberOfRows());
+            assertEquals("A", table.getRow(0).getCell(0).getText());
+            assertEquals("2", table.getRow(1).getCell(1).getText());
+        }
+    }
+
+    @Test
+    void testEncodesLinkDestinationsThatAreNotValidUris() throws Exception {
+        String markdown = "[竖线](https://example.com/a|b) [空格](<https://example.com/a b>) "
+                + "[转义](https://example.com/100%zz) [正常](https://example.com/?q=1#top)\n";
+
+        try (XWPFDocument document = render(markdown)) {
+            List<String> targets = Arrays.stream(document.getHyperlinks())
+                    .map(XWPFHyperlink::getURL)
+                    .collect(Collectors.toList());
+
+            assertTrue(targets.contains("https://example.com/a%7Cb"));
+            assertTrue(targets.contains("https://example.com/a%20b"));
+            assertTrue(targets.contains("https://example.com/100%25zz"));
+            assertTrue(targets.contains("https://example.com/?q=1#top"));
+            assertEquals("竖线 空格 转义 正常", document.getParagraphs().get(0).getText());
+        }
+    }
+
+    @Test
+    void testFallsBackToPlainRunWhenLinkCannotBeEncoded() throws Exception {
+        assertNull(NativeMarkdownRenderer.toHyperlinkTarget("https://example.com/a#b#c"));
+
+        try (XWPFDocument document = render("[坏链接](https://example.com/a#b#c)\n")) {
+            assertEquals(0, document.getHyperlinks().length);
+            assertEquals("坏链接", document.getParagraphs().get(0).getText());
+        }
+    }
+
+    private static XWPFDocument render(String markdown) throws IOException {
+        XWPFDocument document = new XWPFDocument();
+        new NativeMarkdownRenderer(document).render(NativeMarkdownRenderer.parse(markdown));
+        // 写出再读回，确认生成的文档可以被正常打开
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        document.write(output);
+        document.close();
+        return new XWPFDocument(new ByteArrayInputStream(output.toByteArray()));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.mdtoword.util;
+
+import com.example.mdtoword.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WordToMarkdownUtilTest {
+
+    private final WordToMarkdownUtil util = new WordToMarkdownUtil();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testConvertsDocumentRenderedByNativeEngine() throws Exception {
+        MarkdownToWordUtil markdownToWordUtil = new MarkdownToWordUtil();
+        markdownToWordUtil.init();
+        String markdown = "# 标题\n\n普通 **粗体** 和 *斜体* 2*3\n\n## 列表\n\n- 项目A\n  - 子项\n\n"
+                + "| 列1 | 列2 |\n|---|---|\n| a | b\\|c |\n\n```\nint x = 1;\nint y = 2;\n```\n";
+        byte[] docx = markdownToWordUtil.convertMarkdownToWordBytesNative(markdown);
+
+        StringWriter writer = new StringWriter();
+        WordToMarkdownUtil.Result result = util.convert(write(docx), writer, 1 << 24);
+        String converted = writer.toString();
+
+        assertTrue(converted.startsWith("# 标题\n\n"));
+        assertTrue(converted.contains("普通 **粗体** 和 *斜体* 2\\*3\n"));
+        assertTrue(converted.contains("## 列表\n"));
+        assertTrue(converted.contains("- 项目A\n   - 子项\n"));
+        assertTrue(converted.contains("| --- | --- |\n| a | b\\|c |\n"));
+        assertTrue(converted.contains("```\nint x = 1;\nint y = 2;\n```\n"));
+        assertEquals(1, result.getTables());
+    }
+
+    @Test
+    void testUsesStylesAndRelationshipsPrecedingDocument() throws Exception {
+        String styles = "<w:styles xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\">"
+                + "<w:style w:type=\"paragraph\" w:styleId=\"a3\"><w:name w:val=\"heading 2\"/></w:style></w:styles>";
+        String rels = "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId5\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/hyperlink\""
+                + " Target=\"https://example.com\" TargetMode=\"External\"/></Relationships>";
+        String document = "<w:document xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\""
+                + " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\"><w:body>"
+                + "<w:p><w:pPr><w:pStyle w:val=\"a3\"/></w:pPr><w:r><w:t>小节</w:t></w:r></w:p>"
+                + "<w:p><w:r><w:t xml:space=\"preserve\">见 </w:t></w:r><w:hyperlink r:id=\"rId5\"><w:r><w:t>官网</w:t></w:r></w:hyperlink>"
+                + "<w:r><w:drawing/></w:r><w:del><w:r><w:t>已删除</w:t></w:r></w:del></w:p>"
+                + "</w:body></w:document>";
+        byte[] docx = zip("word/styles.xml", styles, "word/_rels/document.xml.rels", rels, "word/document.xml", document);
+
+        StringWriter writer = new StringWriter();
+        WordToMarkdownUtil.Result result = util.convert(write(docx), writer, 1 << 20);
+
+        assertEquals("## 小节\n\n见 [官网](https://example.com)\n\n", writer.toString());
+        assertEquals(1, result.getSkippedImages());
+    }
+
+    @Test
+    void testReadsNumberingAndStylesStoredAfterDocument() throws Exception {
+        String document = "<w:document xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\"><w:body>"
+                + "<w:p><w:pPr><w:pStyle w:val=\"a3\"/></w:pPr><w:r><w:t>小节</w:t></w:r></w:p>"
+                + "<w:p><w:pPr><w:numPr><w:ilvl w:val=\"0\"/><w:numId w:val=\"2\"/></w:numPr></w:pPr><w:r><w:t>第一步</w:t></w:r></w:p>"
+                + "</w:body></w:document>";
+        String styles = "<w:styles xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\">"
+                + "<w:style w:type=\"paragraph\" w:styleId=\"a3\"><w:name w:val=\"heading 2\"/></w:style></w:styles>";
+        String numbering = "<w:numbering xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\">"
+                + "<w:abstractNum w:abstractNumId=\"7\"><w:lvl w:ilvl=\"0\"><w:numFmt w:val=\"decimal\"/></w:lvl></w:abstractNum>"
+                + "<w:num w:numId=\"2\"><w:abstractNumId w:val=\"7\"/></w:num></w:numbering>";
+        // Word生成的文件中 styles.xml、numbering.xml 通常位于 document.xml 之后
+        byte[] docx = zip("word/document.xml", document, "word/styles.xml", styles, "word/numbering.xml", numbering);
+
+        StringWriter writer = new StringWriter();
+        util.convert(write(docx), writer, 1 << 20);
+
+        assertEquals("## 小节\n\n1. 第一步\n\n", writer.toString());
+    }
+
+    @Test
+    void testEscapesBlockMarkersAtLineStart() throws Exception {
+        String document = "<w:document xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\"><w:body>"
+                + "<w:p><w:r><w:t>- 不是列表</w:t></w:r></w:p>"
+                + "<w:p><w:r><w:t>+ 也不是</w:t></w:r></w:p>"
+                + "<w:p><w:r><w:t>2024. 年度总结</w:t></w:r><w:r><w:br/><w:t>1) 第二行</w:t></w:r></w:p>"
+                + "<w:p><w:r><w:t>3.14 保持原样</w:t></w:r></w:p>"
+                + "</w:body></w:document>";
+        byte[] docx = zip("word/document.xml", document);
+
+        StringWriter writer = new StringWriter();
+        util.convert(write(docx), writer, 1 << 20);
+
+        assertEquals("\\- 不是列表\n\n\\+ 也不是\n\n2024\\. 年度总结  \n1\\) 第二行\n\n3.14 保持原样\n\n",
+                writer.toString());
+    }
+
+    @Test
+    void testRejectsArchiveWithoutDocument() throws Exception {
+        byte[] zip = zip("word/styles.xml", "<styles/>");
+
+        assertThrows(BusinessException.class,
+                () -> util.convert(write(zip), new StringWriter(), 1 << 20));
+    }
+
+    @Test
+    void testRejectsFileThatIsNotZip() throws Exception {
+        Path file = write("不是ZIP".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(BusinessException.class, () -> util.convert(file, new StringWriter(), 1 << 20));
+    }
+
+    private Path write(byte[] bytes) throws Exception {
+        return Files.write(Files.createTempFile(tempDir, "test-", ".docx"), bytes);
+    }
+
+    private static byte[] zip(String... entries) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                zip.putNextEntry(new ZipEntry(entries[i]));
+                zip.write(entries[i + 1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}